@@ -17,14 +17,23 @@
 package io.fd.maintainer.plugin;
 
 import com.google.gerrit.common.EventListener;
+import com.google.gerrit.extensions.events.AccountIndexedListener;
 import com.google.gerrit.extensions.registration.DynamicSet;
-import com.google.inject.AbstractModule;
+import com.google.gerrit.lifecycle.LifecycleModule;
 import io.fd.maintainer.plugin.events.OnCommittersToBeAddedListener;
+import io.fd.maintainer.plugin.events.OnMaintainersRefUpdatedListener;
 import io.fd.maintainer.plugin.events.OnPatchsetVerifiedListener;
+import io.fd.maintainer.plugin.service.EventQueue;
+import io.fd.maintainer.plugin.service.MaintainerAccounts;
+import io.fd.maintainer.plugin.service.MaintainersIndexCache;
+import io.fd.maintainer.plugin.service.MaintainersIndexRefresher;
+import io.fd.maintainer.plugin.service.MaintainersIndexWarmup;
+import io.fd.maintainer.plugin.service.MatchingPool;
+import io.fd.maintainer.plugin.service.push.PushScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MaintainerPluginModule extends AbstractModule {
+public class MaintainerPluginModule extends LifecycleModule {
 
     private static final Logger LOG = LoggerFactory.getLogger(MaintainerPluginModule.class);
 
@@ -33,5 +42,13 @@ public class MaintainerPluginModule extends AbstractModule {
         LOG.info("Configuring ComponentInfo plugin module");
         DynamicSet.bind(binder(), EventListener.class).to(OnCommittersToBeAddedListener.class);
         DynamicSet.bind(binder(), EventListener.class).to(OnPatchsetVerifiedListener.class);
+        DynamicSet.bind(binder(), EventListener.class).to(OnMaintainersRefUpdatedListener.class);
+        DynamicSet.bind(binder(), AccountIndexedListener.class).to(MaintainerAccounts.class);
+        listener().to(MatchingPool.class);
+        listener().to(PushScheduler.class);
+        listener().to(EventQueue.class);
+        listener().to(MaintainersIndexRefresher.class);
+        listener().to(MaintainersIndexWarmup.class);
+        install(MaintainersIndexCache.module());
     }
 }
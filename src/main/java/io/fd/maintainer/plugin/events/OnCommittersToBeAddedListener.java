@@ -18,31 +18,26 @@ package io.fd.maintainer.plugin.events;
 
 import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.PatchSet;
-import com.google.gerrit.reviewdb.server.ReviewDb;
-import com.google.gerrit.server.change.ChangesCollection;
 import com.google.gerrit.server.change.PostReview;
 import com.google.gerrit.server.change.PostReviewers;
-import com.google.gerrit.server.change.Revisions;
 import com.google.gerrit.server.data.ChangeAttribute;
 import com.google.gerrit.server.events.Event;
 import com.google.gerrit.server.events.PatchSetCreatedEvent;
 import com.google.gerrit.server.patch.PatchList;
-import com.google.gerrit.server.patch.PatchListCache;
 import com.google.gerrit.server.patch.PatchListEntry;
-import com.google.gwtorm.server.OrmException;
-import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.service.ChangeContext;
+import io.fd.maintainer.plugin.service.ChangeContextFactory;
 import io.fd.maintainer.plugin.service.MaintainersProvider;
-import io.fd.maintainer.plugin.service.SettingsProvider;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.service.push.ReviewerPusher;
 import io.fd.maintainer.plugin.service.push.WarningPusher;
 import io.fd.maintainer.plugin.util.CommonTasks;
 import io.fd.maintainer.plugin.util.MaintainersIndex;
+import io.fd.maintainer.plugin.util.PatchListMatch;
 import io.fd.maintainer.plugin.util.WarningGenerator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.parboiled.common.Tuple2;
@@ -57,28 +52,17 @@ public class OnCommittersToBeAddedListener extends SelfDescribingEventListener i
     private static final Logger LOG = LoggerFactory.getLogger(OnCommittersToBeAddedListener.class);
 
     @Inject
-    private SchemaFactory<ReviewDb> schemaFactory;
-
-    @Inject
-    private PatchListCache patchListCache;
+    private ChangeContextFactory changeContextFactory;
 
     @Inject
     private MaintainersProvider maintainersProvider;
 
-    @Inject
-    private ChangesCollection changes;
-
-    @Inject
-    private Revisions revisions;
-
     @Inject
     private Provider<PostReviewers> reviewersProvider;
 
     @Inject
     private Provider<PostReview> reviewProvider;
 
-    @Inject
-    private SettingsProvider settingsProvider;
 
     @Inject
     private ReviewerPusher reviewerPusher;
@@ -95,44 +79,54 @@ public class OnCommittersToBeAddedListener extends SelfDescribingEventListener i
         final PatchSetCreatedEvent patchSetCreatedEvent = PatchSetCreatedEvent.class.cast(event);
 
         final ChangeAttribute changeAttributes = patchSetCreatedEvent.change.get();
-        final PluginBranchSpecificSettings settings =
-                settingsProvider.getBranchSpecificSettings(changeAttributes.branch);
+        try (final ChangeContext context =
+                     changeContextFactory.create(changeAttributes.number, changeAttributes.branch)) {
+            final PluginBranchSpecificSettings settings = context.getSettings();
 
-        if (!settings.isAutoAddReviewers()) {
-            LOG.warn("Auto add reviewers option turned off");
-            return;
-        }
-
-        try (final ReviewDb reviewDb = schemaFactory.open()) {
-            final Change.Id changeId = new Change.Id(changeAttributes.number);
-            final Change change = reviewDb.changes().get(changeId);
+            if (!settings.isAutoAddReviewers()) {
+                LOG.warn("Auto add reviewers option turned off");
+                return;
+            }
 
-            final PatchSet mostCurrentPatchSet = reviewDb.patchSets().get(change.currentPatchSetId());
+            final Change change = context.getChange();
+            final PatchSet mostCurrentPatchSet = context.getCurrentPatchSet();
 
             LOG.info("Processing change {} | patchset {}", change.getId(), mostCurrentPatchSet.getId());
-            final MaintainersIndex index =
-                    new MaintainersIndex(
-                            maintainersProvider.getMaintainersInfo(changeAttributes.branch, changeAttributes.number));
-
-            reviewerPusher.addRelevantReviewers(index, change, mostCurrentPatchSet, settings.getPluginUserName());
-            LOG.info("Reviewers for change {} successfully added", change.getId());
+            final PatchList patchList = context.getPatchList();
+            final MaintainersIndex index = maintainersProvider.getMaintainersIndex(context);
 
-            final PatchList patchList = getPatchList(patchListCache, change, mostCurrentPatchSet);
-            final List<PatchListEntry> patches = getRelevantPatchListEntries(patchList);
+            final PatchListMatch patchListMatch = index.matchAll(patchList);
 
             final Map<PatchListEntry, Tuple2<Set<ComponentPath>, Set<ComponentPath>>> renamedEntryToComponentsIndex =
-                    renamedEntriesToComponentIndex(index, patches);
+                    renamedEntriesToComponentIndex(patchListMatch);
 
             final Set<WarningGenerator.ComponentChangeWarning> warnings =
                     generateComponentChangeWarnings(index, renamedEntryToComponentsIndex);
-            warningPusher.sendWarnings(warnings, change, mostCurrentPatchSet, settings.getPluginUserName());
-            LOG.info("Warnings for change {} successfully added", change.getId());
-        } catch (OrmException e) {
-            throw new IllegalStateException("Unable to open review DB", e);
+            LOG.debug("Review info cache stats {}", index.getReviewInfoCacheStats());
+
+            if (settings.isCombinedReview()) {
+                if (reviewerPusher.pushCombinedReview(patchListMatch, warnings, context)) {
+                    LOG.info("Combined review for change {} successfully posted", change.getId());
+                }
+            } else {
+                if (reviewerPusher.addRelevantReviewers(patchListMatch, context)) {
+                    LOG.info("Reviewers for change {} successfully added", change.getId());
+                }
+
+                if (warningPusher.sendWarnings(warnings, context)) {
+                    LOG.info("Warnings for change {} successfully added", change.getId());
+                }
+            }
         }
         LOG.info("Change {} successfully processed", patchSetCreatedEvent.changeKey);
     }
 
+    // reviewers are assigned by current patchset of change, so only the latest of quickly uploaded patchsets matters
+    @Override
+    protected Object coalescingKey(final Event event) {
+        return PatchSetCreatedEvent.class.cast(event).change.get().number;
+    }
+
     @Override
     protected boolean canConsume(final Event event) {
         return event instanceof PatchSetCreatedEvent;
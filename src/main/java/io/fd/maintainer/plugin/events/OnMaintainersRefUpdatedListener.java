@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.events;
+
+import com.google.gerrit.reviewdb.client.RefNames;
+import com.google.gerrit.server.data.RefUpdateAttribute;
+import com.google.gerrit.server.events.Event;
+import com.google.gerrit.server.events.RefUpdatedEvent;
+import com.google.inject.Inject;
+import io.fd.maintainer.plugin.service.MaintainersIndexRefresher;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Filters out updates of branches, that may change maintainers file
+ */
+public class OnMaintainersRefUpdatedListener extends SelfDescribingEventListener {
+
+    @Inject
+    private MaintainersIndexRefresher indexRefresher;
+
+    OnMaintainersRefUpdatedListener() {
+
+    }
+
+    @Override
+    protected void consumeDescribedEvent(final Event event) {
+        final RefUpdatedEvent refUpdatedEvent = RefUpdatedEvent.class.cast(event);
+        final RefUpdateAttribute refUpdate = refUpdatedEvent.refUpdate.get();
+
+        indexRefresher.refresh(refUpdatedEvent.getProjectNameKey(), refUpdate.refName,
+                ObjectId.fromString(refUpdate.oldRev), ObjectId.fromString(refUpdate.newRev));
+    }
+
+    @Override
+    protected boolean canConsume(final Event event) {
+        if (!(event instanceof RefUpdatedEvent)) {
+            return false;
+        }
+
+        // deleted branches have no maintainers file
+        final RefUpdateAttribute refUpdate = RefUpdatedEvent.class.cast(event).refUpdate.get();
+        return refUpdate.refName.startsWith(RefNames.REFS_HEADS)
+                && !ObjectId.zeroId().name().equals(refUpdate.newRev);
+    }
+}
@@ -20,31 +20,24 @@ import static io.fd.maintainer.plugin.service.PatchsetReviewInfo.ReviewState.ALL
 import static java.lang.String.format;
 
 import com.google.gerrit.reviewdb.client.Account;
-import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.PatchSet;
 import com.google.gerrit.reviewdb.client.PatchSetApproval;
-import com.google.gerrit.reviewdb.server.ReviewDb;
-import com.google.gerrit.server.change.ChangesCollection;
 import com.google.gerrit.server.data.AccountAttribute;
-import com.google.gerrit.server.data.ApprovalAttribute;
 import com.google.gerrit.server.events.CommentAddedEvent;
 import com.google.gerrit.server.events.Event;
 import com.google.gerrit.server.patch.PatchList;
-import com.google.gerrit.server.patch.PatchListCache;
-import com.google.gwtorm.server.OrmException;
-import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
+import io.fd.maintainer.plugin.service.ChangeContext;
+import io.fd.maintainer.plugin.service.ChangeContextFactory;
+import io.fd.maintainer.plugin.service.MaintainerAccounts;
 import io.fd.maintainer.plugin.service.MaintainersProvider;
 import io.fd.maintainer.plugin.service.PatchsetReviewInfo;
-import io.fd.maintainer.plugin.service.SettingsProvider;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.service.push.ApprovalPusher;
-import io.fd.maintainer.plugin.service.push.SubmitPusher;
 import io.fd.maintainer.plugin.util.MaintainersIndex;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,26 +47,17 @@ public class OnPatchsetVerifiedListener extends SelfDescribingEventListener impl
     private static final Logger LOG = LoggerFactory.getLogger(OnPatchsetVerifiedListener.class);
 
     @Inject
-    private SchemaFactory<ReviewDb> schemaFactory;
+    private ChangeContextFactory changeContextFactory;
 
     @Inject
     private MaintainersProvider maintainersProvider;
 
     @Inject
-    private PatchListCache patchListCache;
-
-    @Inject
-    private ChangesCollection changes;
-
-    @Inject
-    private SettingsProvider settingsProvider;
+    private MaintainerAccounts maintainerAccounts;
 
     @Inject
     private ApprovalPusher approvalPusher;
 
-    @Inject
-    private SubmitPusher submitPusher;
-
     private static String formatUser(final AccountAttribute author) {
         return format("%s(%s)<%s>", author.name, author.username, author.email);
     }
@@ -82,92 +66,84 @@ public class OnPatchsetVerifiedListener extends SelfDescribingEventListener impl
     protected void consumeDescribedEvent(final Event event) {
         CommentAddedEvent commentAddedEvent = CommentAddedEvent.class.cast(event);
 
-        final PluginBranchSpecificSettings settings =
-                settingsProvider.getBranchSpecificSettings(commentAddedEvent.change.get().branch);
-
-        if (!settings.isAllowMaintainersSubmit()) {
-            LOG.warn("Maintainers submit is turned off");
-            return;
-        }
+        try (final ChangeContext context = changeContextFactory.create(commentAddedEvent.change.get().number,
+                commentAddedEvent.change.get().branch)) {
+            final PluginBranchSpecificSettings settings = context.getSettings();
 
-        final Optional<ApprovalAttribute> patchSetVerification = getPatchListVerifications(commentAddedEvent);
+            if (!settings.isAllowMaintainersSubmit()) {
+                LOG.warn("Maintainers submit is turned off");
+                return;
+            }
 
-        // patchset has been +1
-        if (patchSetVerification.isPresent()) {
             LOG.info("User {} just verified change {}", formatUser(commentAddedEvent.author.get()),
                     commentAddedEvent.changeKey.get());
 
-            try (final ReviewDb reviewDb = schemaFactory.open()) {
-                final int changeNumber = commentAddedEvent.change.get().number;
-                final Change.Id changeId = new Change.Id(changeNumber);
-                final Change change = reviewDb.changes().get(changeId);
+            final PatchSet currentPatchset = context.getCurrentPatchSet();
+            final PatchSet.Id currentPatchsetId = currentPatchset.getId();
 
-                final PatchSet currentPatchset = reviewDb.patchSets().get(change.currentPatchSetId());
-                final PatchSet.Id currentPatchsetId = currentPatchset.getId();
+            final int currentPatchsetNr = currentPatchset.getPatchSetId();
+            final int processedPatchsetNr = commentAddedEvent.patchSet.get().number;
 
-                final int currentPatchsetNr = currentPatchset.getPatchSetId();
-                final int processedPatchsetNr = commentAddedEvent.patchSet.get().number;
+            // to filter out reviews on older patchsets
+            if (currentPatchsetNr != processedPatchsetNr) {
+                LOG.warn("Event for older patchset {}, most current {}, ignoring", processedPatchsetNr,
+                        currentPatchsetNr);
+            } else {
+                final List<PatchSetApproval> currentPatchsetVerifications = getPatchListCurrentVerifications(
+                        context.getApprovals(), currentPatchsetId);
 
-                // to filter out reviews on older patchsets
-                if (currentPatchsetNr != processedPatchsetNr) {
-                    LOG.warn("Event for older patchset {}, most current {}, ignoring", processedPatchsetNr,
-                            currentPatchsetNr);
+                if (currentPatchsetVerifications.isEmpty()) {
+                    LOG.warn("No verifications found for patchset {}", currentPatchset.getId());
                 } else {
-                    final List<PatchSetApproval> currentPatchsetVerifications = getPatchListCurrentVerifications(
-                            reviewDb.patchSetApprovals().byChange(changeId).toList(),
-                            currentPatchsetId);
-
-                    if (currentPatchsetVerifications.isEmpty()) {
-                        LOG.warn("No verifications found for patchset {}", currentPatchset.getId());
-                    } else {
-                        LOG.info("Building maintainers index for patchset {}", currentPatchset.getId());
-                        final MaintainersIndex maintainersIndex =
-                                new MaintainersIndex(maintainersProvider
-                                        .getMaintainersInfo(commentAddedEvent.getBranchNameKey().get(),
-                                                changeNumber));
-
-                        LOG.info("Getting current patch list for patchset {}", currentPatchset.getId());
-                        final PatchList patchList = getPatchList(patchListCache, change, currentPatchset);
-
-                        LOG.info("Getting current reviewers for patchset {}", currentPatchset.getId());
-                        final HashSet<Account> currentVerificators =
-                                new HashSet<>(reviewDb.accounts().get(currentPatchsetVerifications
-                                        .stream()
-                                        .map(PatchSetApproval::getAccountId)
-                                        .collect(Collectors.toSet())).toList());
-
-                        LOG.info("Getting patch review info for patchset {}", currentPatchset.getId());
-                        // Note that you only need one MAINTAINER per component.
-                        // Also note a single reviewer may be a MAINTAINER for multiple components
-                        final PatchsetReviewInfo patchsetReviewInfo =
-                                new PatchsetReviewInfo(maintainersIndex, patchList, currentVerificators);
-
-                        if (patchsetReviewInfo.getReviewState() == ALL_COMPONENTS_REVIEWED) {
-                            LOG.info("All relevant component reviewers verified patchset {}", currentPatchset.getId());
-                            approvalPusher.approvePatchset(change, currentPatchset, settings.getPluginUserName());
-
-                            if (settings.isAutoSubmit()) {
-                                LOG.info("Submitting change {}", change.getId());
-                                submitPusher.submitPatch(change, settings.getPluginUserName());
-                            } else {
-                                LOG.warn("Auto submit turned off");
-                            }
+                    LOG.info("Getting current patch list for patchset {}", currentPatchset.getId());
+                    final PatchList patchList = context.getPatchList();
+
+                    LOG.info("Getting maintainers index for patchset {}", currentPatchset.getId());
+                    final MaintainersIndex maintainersIndex = maintainersProvider.getMaintainersIndex(context);
+
+                    LOG.info("Getting current reviewers for patchset {}", currentPatchset.getId());
+                    final Set<Account.Id> currentVerificators = currentPatchsetVerifications.stream()
+                            .map(PatchSetApproval::getAccountId)
+                            .collect(Collectors.toSet());
+
+                    LOG.info("Getting patch review info for patchset {}", currentPatchset.getId());
+                    // Note that you only need one MAINTAINER per component.
+                    // Also note a single reviewer may be a MAINTAINER for multiple components
+                    final PatchsetReviewInfo patchsetReviewInfo =
+                            new PatchsetReviewInfo(maintainersIndex, patchList, currentVerificators,
+                                    maintainerAccounts);
+                    LOG.debug("Review info cache stats {}", maintainersIndex.getReviewInfoCacheStats());
+
+                    if (patchsetReviewInfo.getReviewState() == ALL_COMPONENTS_REVIEWED) {
+                        LOG.info("All relevant component reviewers verified patchset {}", currentPatchset.getId());
+                        if (settings.isAutoSubmit()) {
+                            LOG.info("Approving and submitting change {}", context.getChangeId());
                         } else {
-                            LOG.info(
-                                    "Patchset {} does not have verifications from following components yet : {}",
-                                    currentPatchset.getId(), patchsetReviewInfo.getMissingComponentReview());
+                            LOG.warn("Auto submit turned off");
                         }
+                        // submit is pushed after approval, and retried with it
+                        approvalPusher.approvePatchset(context, settings.isAutoSubmit());
+                    } else {
+                        LOG.info(
+                                "Patchset {} does not have verifications from following components yet : {}",
+                                currentPatchset.getId(), patchsetReviewInfo.getMissingComponentReview());
                     }
                 }
-            } catch (OrmException e) {
-                LOG.error("Error accessing review DB", e);
-                throw new IllegalStateException(e);
             }
         }
     }
 
+    // votes are evaluated by all approvals of patchset, so only the latest of quick votes on patchset matters
+    @Override
+    protected Object coalescingKey(final Event event) {
+        final CommentAddedEvent commentAddedEvent = CommentAddedEvent.class.cast(event);
+        return commentAddedEvent.change.get().number + "/" + commentAddedEvent.patchSet.get().number;
+    }
+
+    // only Code-Review+1 is consumed, so that other comments do not supersede votes
     @Override
     protected boolean canConsume(final Event event) {
-        return event instanceof CommentAddedEvent;
+        return event instanceof CommentAddedEvent
+                && getPatchListVerifications(CommentAddedEvent.class.cast(event)).isPresent();
     }
 }
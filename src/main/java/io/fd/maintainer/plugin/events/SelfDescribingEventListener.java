@@ -16,8 +16,15 @@
 
 package io.fd.maintainer.plugin.events;
 
+import static java.lang.String.format;
+
 import com.google.gerrit.common.EventListener;
+import com.google.gerrit.server.events.ChangeEvent;
 import com.google.gerrit.server.events.Event;
+import com.google.gerrit.server.events.RefUpdatedEvent;
+import com.google.inject.Inject;
+import io.fd.maintainer.plugin.service.EventQueue;
+import io.fd.maintainer.plugin.service.RequestContexts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,14 +35,60 @@ public abstract class SelfDescribingEventListener implements EventListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(SelfDescribingEventListener.class);
 
+    @Inject
+    private EventQueue eventQueue;
+
+    @Inject
+    private RequestContexts requestContexts;
+
     @Override
     public void onEvent(final Event event) {
         if (canConsume(event)) {
-            LOG.info("Event[type={},created={}] has been triggered, consuming ...", event.getType(),
+            LOG.info("Event[type={},created={}] has been triggered, queueing ...", event.getType(),
                     event.eventCreatedOn);
-            consumeDescribedEvent(event);
-            LOG.info("Event[type={},created={}] successfully processed", event.getType(), event.eventCreatedOn);
+            final Object coalescingKey = coalescingKey(event);
+            // processed as user that dispatched event, like when it was processed on dispatching thread
+            eventQueue.submit(describe(event), orderingKey(event), coalescingKey == null
+                    ? null
+                    : getClass().getName() + ":" + coalescingKey, requestContexts.propagate(() -> {
+                LOG.info("Event[type={},created={}] consuming ...", event.getType(), event.eventCreatedOn);
+                consumeDescribedEvent(event);
+                LOG.info("Event[type={},created={}] successfully processed", event.getType(),
+                        event.eventCreatedOn);
+            }));
+        }
+    }
+
+    /**
+     * Key of events that has to be consumed in order they were received, shared by all listeners.
+     * Events of one change are consumed one by one, events of different changes in parallel.
+     */
+    protected Object orderingKey(final Event event) {
+        return event instanceof ChangeEvent
+                ? ((ChangeEvent) event).change.get().number
+                : null;
+    }
+
+    /**
+     * Key of events that can be coalesced, only the latest of events with the same key submitted within
+     * quiet window is consumed. Null if event should be always consumed.
+     */
+    protected Object coalescingKey(final Event event) {
+        return null;
+    }
+
+    /**
+     * Short description of event, used in logs and in listing of event queue
+     */
+    protected String describe(final Event event) {
+        if (event instanceof ChangeEvent) {
+            return format("%s of change %s", event.getType(), ((ChangeEvent) event).change.get().number);
+        }
+        if (event instanceof RefUpdatedEvent) {
+            return format("%s of %s in %s", event.getType(), ((RefUpdatedEvent) event).getRefName(),
+                    ((RefUpdatedEvent) event).getProjectNameKey().get());
         }
+        return event.getType();
     }
 
     /**
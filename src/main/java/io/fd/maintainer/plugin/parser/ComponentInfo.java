@@ -18,6 +18,7 @@ package io.fd.maintainer.plugin.parser;
 
 import static java.util.Collections.emptySet;
 
+import java.util.Objects;
 import java.util.Set;
 
 public final class ComponentInfo {
@@ -57,6 +58,28 @@ public final class ComponentInfo {
         return paths;
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final ComponentInfo that = (ComponentInfo) o;
+
+        return Objects.equals(title, that.title)
+                && comments.equals(that.comments)
+                && maintainers.equals(that.maintainers)
+                && paths.equals(that.paths);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(title, comments, maintainers, paths);
+    }
+
     public static class ComponentInfoBuilder {
         private String title;
         private Set<String> contactEmails;
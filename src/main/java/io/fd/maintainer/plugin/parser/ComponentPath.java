@@ -24,90 +24,138 @@ import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.WILDCARD_W
 
 import java.util.Comparator;
 
+/**
+ * Path pattern of component. Pattern is compiled on creation, so that matching does not create any objects
+ */
 public class ComponentPath {
 
+    private static final char SEPARATOR = '/';
+
     private final String path;
 
+    // wildcard paths
+    private final GlobPattern glob;
+
+    // non-wildcard paths, path segments are compared as prefix of matched path
+    private final String segmentPrefix;
+    private final int segmentCount;
+
     public ComponentPath(final String path) {
         this.path = path;
+
+        if (GlobPattern.isGlob(path)) {
+            this.glob = GlobPattern.compile(path);
+            this.segmentPrefix = null;
+            this.segmentCount = 0;
+        } else {
+            this.glob = null;
+            // same as "/" splitting, trailing separators do not create segments
+            this.segmentPrefix = path.substring(0, trimmedLength(path, 0));
+            this.segmentCount = segmentCount(path);
+        }
+    }
+
+    private static int segmentCount(final String path) {
+        if (path.isEmpty()) {
+            // splitting of empty path results in single empty segment
+            return 1;
+        }
+        final int length = trimmedLength(path, 0);
+        return length == 0
+                ? 0
+                : separatorCount(path, 0, length) + 1;
+    }
+
+    // length of path from given start, without trailing separators
+    private static int trimmedLength(final String path, final int start) {
+        int end = path.length();
+        while (end > start && path.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        return end - start;
+    }
+
+    private static int separatorCount(final String path, final int start, final int length) {
+        int count = 0;
+        for (int i = start; i < start + length; i++) {
+            if (path.charAt(i) == SEPARATOR) {
+                count++;
+            }
+        }
+        return count;
     }
 
     public String getPath() {
         return path;
     }
 
+    public boolean isWildcard() {
+        return glob != null;
+    }
+
+    /**
+     * Compiled wildcard path, null for non-wildcard paths
+     */
+    public GlobPattern getGlob() {
+        return glob;
+    }
+
+    /**
+     * Extension required by wildcard path, empty if path does not require any, null for non-wildcard paths
+     */
+    public String getExtension() {
+        return isWildcard()
+                ? glob.getExtension()
+                : null;
+    }
+
     public MatchLevel matchAgainst(final String path) {
         // initial match level is NONE unless full match
         if (path == null) {
             return NONE;
         }
 
-        MatchLevel matchLevel = this.path.equals(path)
-                ? FULL
-                : NONE;
-        // trims down wildcard
-
-        if (matchLevel == NONE) {
-            final int indexOfWildcard = this.path.indexOf("*");
-
-            if (-1 != indexOfWildcard) {
-                final String wildcardLess = this.path.replace(this.path.substring(indexOfWildcard), "");
-                if (path.contains(wildcardLess)) {
-                    matchLevel = this.path.equals(wildcardLess)
-                            // if path does not have wildcard, its partial match
-                            ? PARTIAL
-                            // if it has, by previous match its proven that it matches wildcard
-                            : WILDCARD_ONLY;
-
-                    final int extensionStart = this.path.lastIndexOf(".");
-                    final String componentExtension = extension(extensionStart, this.path);
-
-                    if (!componentExtension.isEmpty()) {
-                        // meaning that index of last dot was found,therefore extension is present
-                        if (-1 != extensionStart && extension(path).equals(componentExtension)) {
-                            matchLevel = WILDCARD_WITH_EXTENSION;
-                        } else {
-                            // matches wildcard but not the extension
-                            matchLevel = NONE;
-                        }
-                    }
-                }
-            } else {
-                // not a wildcard path ,therefore attempts match it as direct child
-                final String[] componentPathParts = this.path.split("/");
-                final String[] matchedPathParts = path.split("/");
-
-                matchLevel = matchedPathParts.length - componentPathParts.length > 1
-                        ?
-                        NONE
-                        : matchPathsAsDirectChild(componentPathParts, matchedPathParts);
-            }
+        if (this.path.equals(path)) {
+            return FULL;
         }
-        return matchLevel;
-    }
 
-    private MatchLevel matchPathsAsDirectChild(final String[] componentPath, final String[] matchedPath) {
-        for (int i = 0; i < componentPath.length; i++) {
-            if (componentPath[i].equals(matchedPath[i])) {
-                // dir equals,continue
-                continue;
+        if (isWildcard()) {
+            if (!glob.matches(path)) {
+                return NONE;
             }
-            // as soon as dir is not equal, return NONE
-            return NONE;
+
+            // extension is part of the pattern, so it is proven by previous match
+            return glob.getExtension().isEmpty()
+                    ? WILDCARD_ONLY
+                    : WILDCARD_WITH_EXTENSION;
         }
-        // everything has been matched, therefore partial
-        return PARTIAL;
+
+        // not a wildcard path ,therefore attempts match it as direct child
+        return matchPathsAsDirectChild(path);
     }
 
-    private String extension(final int extensionStart, final String path) {
-        if (-1 == extensionStart) {
-            return "";
+    private MatchLevel matchPathsAsDirectChild(final String path) {
+        final int remainderStart;
+        if (segmentCount == 0) {
+            remainderStart = 0;
+        } else {
+            // all segments of component path must be equal to leading segments of matched path
+            if (!path.startsWith(segmentPrefix)) {
+                return NONE;
+            }
+            if (path.length() == segmentPrefix.length()) {
+                return PARTIAL;
+            }
+            if (path.charAt(segmentPrefix.length()) != SEPARATOR) {
+                return NONE;
+            }
+            remainderStart = segmentPrefix.length() + 1;
         }
-        return path.substring(extensionStart + 1);
-    }
 
-    private String extension(final String path) {
-        return extension(path.lastIndexOf("."), path);
+        // matched path can have at most one segment more than component path
+        return separatorCount(path, remainderStart, trimmedLength(path, remainderStart)) == 0
+                ? PARTIAL
+                : NONE;
     }
 
     @Override
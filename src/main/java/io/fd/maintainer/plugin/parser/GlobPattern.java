@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Wildcard path compiled to sequence of tokens. Pattern is always matched against the whole path.
+ * <ul>
+ * <li>{@code *} matches any characters within single directory</li>
+ * <li>{@code **} matches any characters including directory separators, {@code **}{@code /} matches any number
+ * of directories including none</li>
+ * <li>{@code ?} matches single character other than separator</li>
+ * <li>{@code [...]} matches single character other than separator from class, like {@code [a-z_]}.
+ * Class is negated by leading {@code !} or {@code ^}</li>
+ * <li>trailing separator matches everything below directory</li>
+ * </ul>
+ * Paths with single {@code *} and none of other wildcards keep their original meaning of prefix
+ * followed by anything, like {@code src/vnet/*}, optionally restricted by extension, like {@code src/*.mk}.
+ */
+public final class GlobPattern {
+
+    private static final char SEPARATOR = '/';
+    private static final char WILDCARD = '*';
+    private static final char SINGLE_CHARACTER = '?';
+    private static final char CLASS_START = '[';
+    private static final char CLASS_END = ']';
+    private static final char EXTENSION_SEPARATOR = '.';
+
+    private final List<Token> tokens;
+    private final String extension;
+
+    private GlobPattern(final List<Token> tokens, final String extension) {
+        this.tokens = Collections.unmodifiableList(tokens);
+        this.extension = extension;
+    }
+
+    /**
+     * Tells whether path contains any wildcards
+     */
+    public static boolean isGlob(@Nonnull final String path) {
+        return path.indexOf(WILDCARD) != -1 || path.indexOf(SINGLE_CHARACTER) != -1 || hasClass(path);
+    }
+
+    private static boolean hasClass(final String path) {
+        for (int start = path.indexOf(CLASS_START); start != -1; start = path.indexOf(CLASS_START, start + 1)) {
+            if (classEnd(path, start) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static GlobPattern compile(@Nonnull final String path) {
+        final int firstWildcard = path.indexOf(WILDCARD);
+        final boolean singleWildcard = firstWildcard != -1
+                && firstWildcard == path.lastIndexOf(WILDCARD)
+                && path.indexOf(SINGLE_CHARACTER) == -1
+                && !hasClass(path);
+
+        return singleWildcard
+                ? compileSingleWildcard(path, firstWildcard)
+                : compileGlob(path);
+    }
+
+    // everything after wildcard is ignored, except of extension
+    private static GlobPattern compileSingleWildcard(final String path, final int wildcard) {
+        final List<Token> tokens = new ArrayList<>();
+        addLiterals(tokens, path, 0, wildcard);
+        tokens.add(new Token(TokenType.ANY_PATH, (char) 0, new char[0], false));
+
+        final String extension = extension(path, wildcard + 1);
+        if (!extension.isEmpty()) {
+            tokens.add(Token.literal(EXTENSION_SEPARATOR));
+            addLiterals(tokens, extension, 0, extension.length());
+        }
+        return new GlobPattern(tokens, extension);
+    }
+
+    private static GlobPattern compileGlob(final String path) {
+        final List<Token> tokens = new ArrayList<>();
+        int literalTail = 0;
+        int i = 0;
+        while (i < path.length()) {
+            final char character = path.charAt(i);
+            if (character == WILDCARD) {
+                if (i + 1 < path.length() && path.charAt(i + 1) == WILDCARD) {
+                    i += 2;
+                    while (i < path.length() && path.charAt(i) == WILDCARD) {
+                        i++;
+                    }
+                    if (i < path.length() && path.charAt(i) == SEPARATOR) {
+                        tokens.add(new Token(TokenType.ANY_DIRECTORIES, (char) 0, new char[0], false));
+                        i++;
+                    } else {
+                        tokens.add(new Token(TokenType.ANY_PATH, (char) 0, new char[0], false));
+                    }
+                } else {
+                    tokens.add(new Token(TokenType.ANY_NAME, (char) 0, new char[0], false));
+                    i++;
+                }
+                literalTail = i;
+            } else if (character == SINGLE_CHARACTER) {
+                tokens.add(new Token(TokenType.CHARACTER, (char) 0, new char[0], false));
+                literalTail = ++i;
+            } else if (character == CLASS_START && classEnd(path, i) != -1) {
+                final int end = classEnd(path, i);
+                tokens.add(characterClass(path, i + 1, end));
+                literalTail = i = end + 1;
+            } else {
+                tokens.add(Token.literal(character));
+                i++;
+            }
+        }
+
+        if (!path.isEmpty() && path.charAt(path.length() - 1) == SEPARATOR) {
+            // same as directories without wildcard, whole content is matched
+            tokens.add(new Token(TokenType.ANY_PATH, (char) 0, new char[0], false));
+        }
+        return new GlobPattern(tokens, extension(path, literalTail));
+    }
+
+    private static void addLiterals(final List<Token> tokens, final String path, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            tokens.add(Token.literal(path.charAt(i)));
+        }
+    }
+
+    // extension of the last segment of literal part starting with given index, empty if there is none
+    private static String extension(final String path, final int literalStart) {
+        final int extensionStart = path.lastIndexOf(EXTENSION_SEPARATOR);
+        if (extensionStart < literalStart || path.indexOf(SEPARATOR, extensionStart) != -1) {
+            return "";
+        }
+        return path.substring(extensionStart + 1);
+    }
+
+    // index of closing bracket of class starting at given index, -1 if class is not closed
+    private static int classEnd(final String path, final int start) {
+        int i = start + 1;
+        if (i < path.length() && (path.charAt(i) == '!' || path.charAt(i) == '^')) {
+            i++;
+        }
+        // closing bracket right after opening one is part of class
+        if (i < path.length() && path.charAt(i) == CLASS_END) {
+            i++;
+        }
+        for (; i < path.length(); i++) {
+            if (path.charAt(i) == CLASS_END) {
+                return i;
+            }
+            if (path.charAt(i) == SEPARATOR) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static Token characterClass(final String path, final int start, final int end) {
+        int i = start;
+        final boolean negated = path.charAt(i) == '!' || path.charAt(i) == '^';
+        if (negated) {
+            i++;
+        }
+
+        final StringBuilder ranges = new StringBuilder();
+        while (i < end) {
+            final char from = path.charAt(i);
+            if (i + 2 < end && path.charAt(i + 1) == '-') {
+                ranges.append(from).append(path.charAt(i + 2));
+                i += 3;
+            } else {
+                ranges.append(from).append(from);
+                i++;
+            }
+        }
+        return new Token(TokenType.CHARACTER_CLASS, (char) 0, ranges.toString().toCharArray(), negated);
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Extension that matched path must have, empty if pattern does not require any
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    public boolean matches(@Nonnull final String path) {
+        return matches(path, 0, 0);
+    }
+
+    private boolean matches(final String path, final int tokenStart, final int pathStart) {
+        int token = tokenStart;
+        int index = pathStart;
+        while (token < tokens.size()) {
+            final Token current = tokens.get(token);
+            switch (current.getType()) {
+                case ANY_NAME:
+                    for (int end = index; ; end++) {
+                        if (matches(path, token + 1, end)) {
+                            return true;
+                        }
+                        if (end == path.length() || path.charAt(end) == SEPARATOR) {
+                            return false;
+                        }
+                    }
+                case ANY_PATH:
+                    for (int end = index; end <= path.length(); end++) {
+                        if (matches(path, token + 1, end)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case ANY_DIRECTORIES:
+                    if (matches(path, token + 1, index)) {
+                        return true;
+                    }
+                    for (int end = index; end < path.length(); end++) {
+                        if (path.charAt(end) == SEPARATOR && matches(path, token + 1, end + 1)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    if (index == path.length() || !current.matches(path.charAt(index))) {
+                        return false;
+                    }
+                    token++;
+                    index++;
+            }
+        }
+        return index == path.length();
+    }
+
+    @Override
+    public String toString() {
+        return "GlobPattern{" +
+                "tokens=" + tokens +
+                ", extension='" + extension + '\'' +
+                '}';
+    }
+
+    public enum TokenType {
+        LITERAL, // single exact character
+        CHARACTER, // any single character except separator
+        CHARACTER_CLASS, // single character from class, except separator
+        ANY_NAME, // any characters except separator
+        ANY_PATH, // any characters
+        ANY_DIRECTORIES; // none or any number of directories
+
+        /**
+         * Tells whether token matches any number of characters
+         */
+        public boolean isRepeated() {
+            return this == ANY_NAME || this == ANY_PATH || this == ANY_DIRECTORIES;
+        }
+    }
+
+    /**
+     * Single element of compiled pattern
+     */
+    public static final class Token {
+        private final TokenType type;
+        private final char character;
+        // pairs of inclusive bounds
+        private final char[] ranges;
+        private final boolean negated;
+
+        private Token(final TokenType type, final char character, final char[] ranges, final boolean negated) {
+            this.type = type;
+            this.character = character;
+            this.ranges = ranges;
+            this.negated = negated;
+        }
+
+        private static Token literal(final char character) {
+            return new Token(TokenType.LITERAL, character, new char[]{character, character}, false);
+        }
+
+        public TokenType getType() {
+            return type;
+        }
+
+        /**
+         * Inclusive bounds of characters that are handled specifically by this token, in pairs
+         */
+        public char[] getRanges() {
+            return ranges.clone();
+        }
+
+        /**
+         * Tells whether single character can be consumed by this token
+         */
+        public boolean matches(final char character) {
+            switch (type) {
+                case LITERAL:
+                    return this.character == character;
+                case CHARACTER_CLASS:
+                    return character != SEPARATOR && negated != inRanges(character);
+                case ANY_NAME:
+                case CHARACTER:
+                    return character != SEPARATOR;
+                default:
+                    return true;
+            }
+        }
+
+        private boolean inRanges(final char character) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] <= character && character <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case LITERAL:
+                    return String.valueOf(character);
+                case CHARACTER_CLASS:
+                    return (negated ? "[!" : "[") + new String(ranges) + "]";
+                default:
+                    return type.name();
+            }
+        }
+    }
+}
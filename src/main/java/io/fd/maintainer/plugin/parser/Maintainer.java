@@ -16,6 +16,8 @@
 
 package io.fd.maintainer.plugin.parser;
 
+import java.util.Locale;
+import javax.annotation.Nonnull;
 
 public class Maintainer {
 
@@ -35,6 +37,13 @@ public class Maintainer {
         return email;
     }
 
+    /**
+     * Normalized form of email, in which emails of maintainers and accounts are compared
+     */
+    public static String normalizeEmail(@Nonnull final String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
         return "Maintainer{" +
@@ -19,13 +19,21 @@ package io.fd.maintainer.plugin.parser;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 
+import com.google.common.io.CharStreams;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 
 
@@ -37,9 +45,17 @@ public final class MaintainersParser {
     private static final String COMMENT_TOKEN = "C:";
     private static final String EMAIL_START_TOKEN = "<";
     private static final String EMAIL_END_TOKEN = ">";
+    private static final String ROOT_OWNERS_PATH = "*";
+    private static final String ROOT_OWNERS_TITLE = "/";
 
     private static ComponentInfo parseBlock(final Set<String> blockLines) throws MaintainerMismatchException {
         checkState(blockLines.size() >= 3, "Unable to parse block from %s", blockLines);
+        return parseBlock(blockLines, "");
+    }
+
+    // paths are relative to provided directory
+    private static ComponentInfo parseBlock(final Set<String> blockLines, final String directory)
+            throws MaintainerMismatchException {
 
         String title = null;
         Set<Maintainer> maintainers = new HashSet<>();
@@ -56,7 +72,7 @@ public final class MaintainersParser {
             }
 
             if (line.startsWith(FILEPATH_TOKEN)) {
-                paths.add(new ComponentPath(extractComponentPath(line)));
+                paths.add(new ComponentPath(directory + extractComponentPath(line)));
                 continue;
             }
 
@@ -80,6 +96,30 @@ public final class MaintainersParser {
                 .createMaintainer();
     }
 
+    // block without paths owns whole directory, block without title is named by directory
+    private static ComponentInfo parseOwnersBlock(final Set<String> blockLines, final String directory)
+            throws MaintainerMismatchException {
+        final ComponentInfo block = parseBlock(blockLines, directory);
+        if (!block.getPaths().isEmpty() && block.getTitle() != null) {
+            return block;
+        }
+
+        // wildcard, so that subdirectories without own ownership file are owned as well
+        final Set<ComponentPath> paths = block.getPaths().isEmpty()
+                ? Collections.singleton(new ComponentPath(directory + ROOT_OWNERS_PATH))
+                : block.getPaths();
+        return new ComponentInfo.ComponentInfoBuilder()
+                .setTitle(block.getTitle() != null
+                        ? block.getTitle()
+                        : directory.isEmpty()
+                                ? ROOT_OWNERS_TITLE
+                                : directory)
+                .setMaintainers(block.getMaintainers())
+                .setPaths(paths)
+                .setComments(block.getComments())
+                .createMaintainer();
+    }
+
     // raw input in format : M:	Name Surname <example@example.com>
     private static String extractMaintainer(final String rawString) {
         return rawString.substring(0, rawString.indexOf(EMAIL_START_TOKEN)).replace(MAINTAINER_TOKEN, "").trim();
@@ -96,44 +136,87 @@ public final class MaintainersParser {
     }
 
     public List<ComponentInfo> parseMaintainers(@Nonnull final String rawContent) throws MaintainerMismatchException {
-        final List<String> lines =
-                Arrays.stream(rawContent.split(System.lineSeparator())).collect(Collectors.toList());
-        int lastHeaderLine;
-        for (lastHeaderLine = 0; lastHeaderLine < lines.size(); lastHeaderLine++) {
-            if (lines.get(lastHeaderLine).contains(HEADER_SPLITTER)) {
-                break;
-            }
+        try {
+            return parseMaintainers(new StringReader(rawContent));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read maintainers content", e);
         }
+    }
 
-        List<String> headerLessLines = lines.stream().skip(lastHeaderLine + 1).collect(Collectors.toList());
-        final List<Set<String>> blocks = new LinkedList<>();
+    /**
+     * Parses maintainers file directly from stream of its bytes, in UTF-8
+     */
+    public List<ComponentInfo> parseMaintainers(@Nonnull final InputStream input)
+            throws IOException, MaintainerMismatchException {
+        return parseMaintainers(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
 
-        while (!headerLessLines.isEmpty()) {
-            final int nextBlockEnd = nextBlockEnd(headerLessLines);
-            final Set<String> nextBlock = headerLessLines.stream().limit(nextBlockEnd + 1).map(
-                    String::trim).filter(line -> !line.isEmpty()).collect(Collectors.toSet());
-            blocks.add(nextBlock);
-            headerLessLines =
-                    headerLessLines.stream().unordered().skip(nextBlockEnd + 1).collect(Collectors.toList());
-        }
+    private List<ComponentInfo> parseMaintainers(final Reader reader) throws IOException, MaintainerMismatchException {
+        final List<ComponentInfo> componentInfos = new ArrayList<>();
+        parseMaintainers(reader, componentInfos::add);
+        return componentInfos;
+    }
 
-        List<ComponentInfo> componentInfos = new ArrayList<>();
-        for (Set<String> block : blocks) {
-            if (block.size() > 0) {
-                componentInfos.add(parseBlock(block));
-            }
-        }
+    /**
+     * Parses maintainers file in single pass over its lines, every component is passed to consumer
+     * as soon as its block ends, in order of maintainers file
+     */
+    public void parseMaintainers(@Nonnull final Reader reader, @Nonnull final Consumer<ComponentInfo> consumer)
+            throws IOException, MaintainerMismatchException {
+        // everything up to header splitter is description of file format
+        readBlocks(reader, true, block -> consumer.accept(parseBlock(block)));
+    }
+
+    /**
+     * Parses ownership file of single directory. Ownership file consists of the same blocks as maintainers file,
+     * header is optional. F: paths are relative to the directory, block without F: paths owns whole directory
+     * and block without title is named by the directory.
+     *
+     * @param directory path of directory ending with separator, or empty string for root
+     */
+    public List<ComponentInfo> parseOwners(@Nonnull final InputStream input, @Nonnull final String directory)
+            throws IOException, MaintainerMismatchException {
+        final String content = CharStreams.toString(new InputStreamReader(input, StandardCharsets.UTF_8));
+        final boolean hasHeader = content.contains(HEADER_SPLITTER);
+
+        final List<ComponentInfo> componentInfos = new ArrayList<>();
+        readBlocks(new StringReader(content), hasHeader,
+                block -> componentInfos.add(parseOwnersBlock(block, directory)));
         return componentInfos;
     }
 
-    private int nextBlockEnd(final List<String> lines) {
+    private static void readBlocks(final Reader reader, final boolean skipHeader, final BlockConsumer consumer)
+            throws IOException, MaintainerMismatchException {
+        final BufferedReader lineReader = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+
+        boolean inHeader = skipHeader;
+        final Set<String> block = new LinkedHashSet<>();
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            if (inHeader) {
+                inHeader = !line.contains(HEADER_SPLITTER);
+                continue;
+            }
 
-        for (int end = 0; end < lines.size(); end++) {
-            if (lines.get(end).trim().isEmpty()) {
-                return end;
+            final String trimmedLine = line.trim();
+            if (!trimmedLine.isEmpty()) {
+                block.add(trimmedLine);
+            } else if (!block.isEmpty()) {
+                consumer.accept(block);
+                block.clear();
             }
         }
+
         //EOF
-        return lines.size();
+        if (!block.isEmpty()) {
+            consumer.accept(block);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockConsumer {
+        void accept(Set<String> blockLines) throws MaintainerMismatchException;
     }
 }
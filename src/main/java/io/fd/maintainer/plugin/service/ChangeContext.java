@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.client.PatchSetApproval;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.change.ChangeResource;
+import com.google.gerrit.server.change.RevisionResource;
+import com.google.gerrit.server.patch.PatchList;
+import com.google.gerrit.server.patch.PatchListNotAvailableException;
+import com.google.gwtorm.server.OrmException;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import java.io.IOException;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * State of change processed by single event. Every part is loaded on first use and then shared
+ * by all stages that process the event, review DB is opened at most once and closed with context.
+ * Context is created by {@link ChangeContextFactory}.
+ */
+public class ChangeContext implements AutoCloseable {
+
+    private final Change.Id changeId;
+    private final String branchName;
+
+    private final Supplier<ReviewDb> reviewDb;
+    private final Supplier<PluginBranchSpecificSettings> settings;
+    private final Supplier<Change> change;
+    private final Supplier<PatchSet> currentPatchSet;
+    private final Supplier<List<PatchSetApproval>> approvals;
+    private final Supplier<PatchList> patchList;
+    private final Supplier<ChangeResource> changeResource;
+    private final Supplier<RevisionResource> revisionResource;
+    private volatile boolean reviewDbOpened;
+
+    ChangeContext(@Nonnull final Change.Id changeId, @Nonnull final String branchName, @Nonnull final Loader loader) {
+        this.changeId = changeId;
+        this.branchName = branchName;
+        reviewDb = memoize("review DB", () -> {
+            final ReviewDb db = loader.openReviewDb();
+            reviewDbOpened = true;
+            return db;
+        });
+        settings = memoize("settings", () -> loader.loadSettings(branchName));
+        change = memoize("change", () -> loader.loadChange(reviewDb.get(), changeId));
+        currentPatchSet = memoize("current patchset",
+                () -> loader.loadPatchSet(reviewDb.get(), change.get().currentPatchSetId()));
+        approvals = memoize("approvals", () -> loader.loadApprovals(reviewDb.get(), changeId));
+        patchList = memoize("patch list", () -> loader.loadPatchList(change.get(), currentPatchSet.get()));
+        changeResource = memoize("change resource", () -> loader.loadChangeResource(changeId));
+        revisionResource = memoize("revision resource",
+                () -> loader.loadRevisionResource(changeResource.get()));
+    }
+
+    private <T> Supplier<T> memoize(final String description, final LoadFunction<T> function) {
+        return Suppliers.memoize(() -> {
+            try {
+                return function.load();
+            } catch (OrmException | IOException | RestApiException | PatchListNotAvailableException e) {
+                throw new IllegalStateException(format("Unable to load %s of change %s", description, changeId), e);
+            }
+        });
+    }
+
+    public Change.Id getChangeId() {
+        return changeId;
+    }
+
+    public String getBranchName() {
+        return branchName;
+    }
+
+    /**
+     * Settings of branch of change
+     */
+    public PluginBranchSpecificSettings getSettings() {
+        return settings.get();
+    }
+
+    public Change getChange() {
+        return change.get();
+    }
+
+    public Project.NameKey getProject() {
+        return getChange().getProject();
+    }
+
+    public PatchSet getCurrentPatchSet() {
+        return currentPatchSet.get();
+    }
+
+    /**
+     * Approvals of all patchsets of change
+     */
+    public List<PatchSetApproval> getApprovals() {
+        return approvals.get();
+    }
+
+    /**
+     * Patch list of current patchset
+     */
+    public PatchList getPatchList() {
+        return patchList.get();
+    }
+
+    public ChangeResource getChangeResource() {
+        return changeResource.get();
+    }
+
+    /**
+     * Resource of current revision
+     */
+    public RevisionResource getRevisionResource() {
+        return revisionResource.get();
+    }
+
+    @Override
+    public void close() {
+        if (reviewDbOpened) {
+            reviewDb.get().close();
+        }
+    }
+
+    /**
+     * Loads parts of context
+     */
+    interface Loader {
+
+        ReviewDb openReviewDb() throws OrmException;
+
+        PluginBranchSpecificSettings loadSettings(String branchName);
+
+        Change loadChange(ReviewDb reviewDb, Change.Id changeId) throws OrmException;
+
+        PatchSet loadPatchSet(ReviewDb reviewDb, PatchSet.Id patchSetId) throws OrmException;
+
+        List<PatchSetApproval> loadApprovals(ReviewDb reviewDb, Change.Id changeId) throws OrmException;
+
+        PatchList loadPatchList(Change change, PatchSet patchSet) throws PatchListNotAvailableException;
+
+        ChangeResource loadChangeResource(Change.Id changeId) throws OrmException, RestApiException;
+
+        RevisionResource loadRevisionResource(ChangeResource changeResource)
+                throws OrmException, IOException, RestApiException;
+    }
+
+    @FunctionalInterface
+    private interface LoadFunction<T> {
+        T load() throws OrmException, IOException, RestApiException, PatchListNotAvailableException;
+    }
+}
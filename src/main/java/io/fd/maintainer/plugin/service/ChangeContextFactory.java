@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.gerrit.extensions.restapi.IdString;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.client.PatchSetApproval;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.change.ChangeResource;
+import com.google.gerrit.server.change.ChangesCollection;
+import com.google.gerrit.server.change.RevisionResource;
+import com.google.gerrit.server.change.Revisions;
+import com.google.gerrit.server.patch.PatchList;
+import com.google.gerrit.server.patch.PatchListCache;
+import com.google.gerrit.server.patch.PatchListNotAvailableException;
+import com.google.gwtorm.server.OrmException;
+import com.google.gwtorm.server.SchemaFactory;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import java.io.IOException;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Creates {@link ChangeContext} for processing of single event
+ */
+@Singleton
+public class ChangeContextFactory implements ChangeContext.Loader {
+
+    @Inject
+    private SchemaFactory<ReviewDb> schemaFactory;
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private PatchListCache patchListCache;
+
+    @Inject
+    private ChangesCollection changesCollection;
+
+    @Inject
+    private Revisions revisions;
+
+    /**
+     * Context of change with provided number, that targets provided branch
+     */
+    public ChangeContext create(final int changeNumber, @Nonnull final String branchName) {
+        return new ChangeContext(new Change.Id(changeNumber), branchName, this);
+    }
+
+    @Override
+    public ReviewDb openReviewDb() throws OrmException {
+        return schemaFactory.open();
+    }
+
+    @Override
+    public PluginBranchSpecificSettings loadSettings(final String branchName) {
+        return settingsProvider.getBranchSpecificSettings(branchName);
+    }
+
+    @Override
+    public Change loadChange(final ReviewDb reviewDb, final Change.Id changeId) throws OrmException {
+        return reviewDb.changes().get(changeId);
+    }
+
+    @Override
+    public PatchSet loadPatchSet(final ReviewDb reviewDb, final PatchSet.Id patchSetId) throws OrmException {
+        return reviewDb.patchSets().get(patchSetId);
+    }
+
+    @Override
+    public List<PatchSetApproval> loadApprovals(final ReviewDb reviewDb, final Change.Id changeId)
+            throws OrmException {
+        return reviewDb.patchSetApprovals().byChange(changeId).toList();
+    }
+
+    @Override
+    public PatchList loadPatchList(final Change change, final PatchSet patchSet)
+            throws PatchListNotAvailableException {
+        return patchListCache.get(change, patchSet);
+    }
+
+    @Override
+    public ChangeResource loadChangeResource(final Change.Id changeId) throws OrmException, RestApiException {
+        return changesCollection.parse(changeId);
+    }
+
+    @Override
+    public RevisionResource loadRevisionResource(final ChangeResource changeResource)
+            throws OrmException, IOException, RestApiException {
+        return revisions.parse(changeResource, IdString.fromUrl("current"));
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import io.fd.maintainer.plugin.util.VirtualThreads;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes events of plugin in dedicated work queue, so that thread dispatching events to all listeners is not
+ * blocked by git reads, DB queries and reviews. Number of waiting events is bounded, events that do not fit
+ * are handled by configured overflow policy. Waiting and running events are listed by gerrit show-queue.
+ * <br>
+ * Events submitted with coalescing key wait for quiet window, and are superseded by later event with the same key
+ * submitted in the meantime. Superseded events are dropped without being processed.
+ * <br>
+ * Events submitted with ordering key are processed one by one in order they were submitted, in lane of their key.
+ * Events of different keys are processed in parallel. When queue is full, event of key without pending events
+ * can be processed on dispatching thread, other events of that key are discarded to keep their order.
+ * <br>
+ * On JVMs with virtual threads, events can be processed by virtual threads instead of work queue, so that events
+ * blocked on database, git or reviews do not hold platform threads. Such events are not listed by show-queue.
+ */
+@Singleton
+public class EventQueue implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventQueue.class);
+    private static final String QUEUE_NAME = "MaintainerPluginEvents";
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "maintainer-plugin-event-";
+
+    @Inject
+    private WorkQueue workQueue;
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    // latest waiting event per coalescing key
+    private final ConcurrentMap<Object, EventTask> latest = new ConcurrentHashMap<>();
+    // lanes of ordering keys that have waiting events, lane is removed once it has none
+    private final ConcurrentMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    private WorkQueue.Executor workQueueExecutor;
+    private ScheduledExecutorService executor;
+    private int capacity;
+    private PluginGlobalSettings.OverflowPolicy overflowPolicy;
+    private long quietWindow;
+
+    /**
+     * Submits processing of event, returns false if it was discarded because of full queue
+     */
+    public boolean submit(@Nonnull final String description, @Nonnull final Runnable processing) {
+        return submit(description, null, null, processing);
+    }
+
+    /**
+     * Submits processing of event, that supersedes waiting event with the same coalescing key.
+     * Returns false if it was discarded because of full queue.
+     */
+    public boolean submit(@Nonnull final String description, @Nullable final Object coalescingKey,
+                          @Nonnull final Runnable processing) {
+        return submit(description, null, coalescingKey, processing);
+    }
+
+    /**
+     * Submits processing of event, that is processed after all events with the same ordering key submitted
+     * before it, and that supersedes waiting event with the same coalescing key. Returns false if it was discarded
+     * because of full queue.
+     */
+    public boolean submit(@Nonnull final String description, @Nullable final Object orderingKey,
+                          @Nullable final Object coalescingKey, @Nonnull final Runnable processing) {
+        final ScheduledExecutorService currentExecutor = currentExecutor();
+        if (currentExecutor == null) {
+            // processed on dispatching thread, if queue is disabled or not started
+            processing.run();
+            return true;
+        }
+
+        final EventTask task = new EventTask(description, orderingKey, quietWindow == 0
+                ? null
+                : coalescingKey, processing);
+        if (task.coalescingKey != null) {
+            final EventTask previous = latest.put(task.coalescingKey, task);
+            if (previous != null && previous.supersede()) {
+                // replaces previous event in queue, so number of waiting events is not changed
+                LOG.debug("{} superseded by {}, {} events superseded so far", previous.description, description,
+                        superseded.incrementAndGet());
+                dispatch(currentExecutor, task);
+                return true;
+            }
+        }
+
+        if (waiting.incrementAndGet() <= capacity) {
+            dispatch(currentExecutor, task);
+            return true;
+        }
+
+        waiting.decrementAndGet();
+        if (task.coalescingKey != null) {
+            latest.remove(task.coalescingKey, task);
+        }
+        if (overflowPolicy == PluginGlobalSettings.OverflowPolicy.DISCARD) {
+            LOG.warn("Event queue is full, discarding {}, {} events discarded so far", description,
+                    discarded.incrementAndGet());
+            return false;
+        }
+
+        if (orderingKey == null) {
+            LOG.warn("Event queue is full, processing {} on dispatching thread", description);
+            processing.run();
+            return true;
+        }
+
+        // event of key that has waiting or running events would have to wait for them, so it is discarded instead
+        // of blocking dispatching thread or exceeding capacity
+        final Lane claimed = new Lane(orderingKey, currentExecutor);
+        if (lanes.putIfAbsent(orderingKey, claimed) != null) {
+            LOG.warn("Event queue is full and events of {} are pending, discarding {}, {} events discarded so far",
+                    orderingKey, description, discarded.incrementAndGet());
+            return false;
+        }
+
+        LOG.warn("Event queue is full, processing {} on dispatching thread", description);
+        try {
+            processing.run();
+        } finally {
+            // events of the key submitted in the meantime waited in claimed lane
+            final boolean[] pending = new boolean[1];
+            lanes.computeIfPresent(orderingKey, (key, lane) -> {
+                if (lane != claimed) {
+                    return lane;
+                }
+                pending[0] = !lane.tasks.isEmpty();
+                return pending[0]
+                        ? lane
+                        : null;
+            });
+            if (pending[0]) {
+                currentExecutor.execute(claimed);
+            }
+        }
+        return true;
+    }
+
+    private synchronized ScheduledExecutorService currentExecutor() {
+        return executor;
+    }
+
+    private void dispatch(final ScheduledExecutorService currentExecutor, final EventTask task) {
+        if (task.orderingKey == null) {
+            currentExecutor.schedule(task, task.readyAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        // lane is started with its first event, and keeps running until it has no events
+        final Lane[] started = new Lane[1];
+        lanes.compute(task.orderingKey, (key, lane) -> {
+            if (lane == null) {
+                started[0] = new Lane(key, currentExecutor);
+                started[0].tasks.addLast(task);
+                return started[0];
+            }
+            lane.tasks.addLast(task);
+            return lane;
+        });
+        if (started[0] != null) {
+            currentExecutor.execute(started[0]);
+        }
+    }
+
+    /**
+     * Number of events waiting for processing
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Number of events discarded because of full queue
+     */
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    /**
+     * Number of events dropped because later event with the same key was submitted within quiet window
+     */
+    public long getSuperseded() {
+        return superseded.get();
+    }
+
+    @Override
+    public synchronized void start() {
+        final PluginGlobalSettings settings = settingsProvider.getGlobalSettings();
+        // virtual threads do not need threads of the queue, so they are used even if event threads are 0
+        if (settings.getEventVirtualThreads() > 0) {
+            final Optional<ScheduledExecutorService> virtualExecutor =
+                    VirtualThreads.scheduledExecutor(VIRTUAL_THREAD_NAME_PREFIX, settings.getEventVirtualThreads());
+            if (virtualExecutor.isPresent()) {
+                LOG.info("Starting event queue with up to {} virtual threads, capacity {}, overflow policy {} "
+                                + "and quiet window {} ms", settings.getEventVirtualThreads(),
+                        settings.getEventQueueCapacity(), settings.getEventQueueOverflow(),
+                        settings.getEventQuietWindow());
+                start(virtualExecutor.get(), settings.getEventQueueCapacity(), settings.getEventQueueOverflow(),
+                        settings.getEventQuietWindow());
+                return;
+            }
+            LOG.warn("Virtual threads are not supported by this JVM or plugin build, falling back to {} threads of {}",
+                    settings.getEventThreads(), QUEUE_NAME);
+        }
+        if (settings.getEventThreads() == 0) {
+            LOG.info("Event queue disabled, events are processed on dispatching thread");
+            return;
+        }
+        LOG.info("Starting event queue with {} threads, capacity {}, overflow policy {} and quiet window {} ms",
+                settings.getEventThreads(), settings.getEventQueueCapacity(), settings.getEventQueueOverflow(),
+                settings.getEventQuietWindow());
+        workQueueExecutor = workQueue.createQueue(settings.getEventThreads(), QUEUE_NAME);
+        start(workQueueExecutor, settings.getEventQueueCapacity(), settings.getEventQueueOverflow(),
+                settings.getEventQuietWindow());
+    }
+
+    synchronized void start(final ScheduledExecutorService executor, final int capacity,
+                            final PluginGlobalSettings.OverflowPolicy overflowPolicy, final long quietWindow) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.quietWindow = quietWindow;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (workQueueExecutor != null) {
+            workQueueExecutor.unregisterWorkQueue();
+            workQueueExecutor = null;
+        }
+        waiting.set(0);
+        latest.clear();
+        lanes.clear();
+        LOG.info("Event queue stopped, {} events discarded, {} events superseded", discarded.get(),
+                superseded.get());
+    }
+
+    private enum TaskState {
+        WAITING, RUNNING, SUPERSEDED
+    }
+
+    // described by show-queue by its toString
+    private final class EventTask implements Runnable {
+        private final String description;
+        private final Object orderingKey;
+        private final Object coalescingKey;
+        private final Runnable processing;
+        private final long queuedAt = System.currentTimeMillis();
+        private final long readyAt;
+        private final AtomicReference<TaskState> state = new AtomicReference<>(TaskState.WAITING);
+        private volatile long startedAt;
+
+        private EventTask(final String description, final Object orderingKey, final Object coalescingKey,
+                          final Runnable processing) {
+            this.description = description;
+            this.orderingKey = orderingKey;
+            this.coalescingKey = coalescingKey;
+            this.processing = processing;
+            readyAt = coalescingKey == null
+                    ? queuedAt
+                    : queuedAt + quietWindow;
+        }
+
+        private boolean supersede() {
+            return state.compareAndSet(TaskState.WAITING, TaskState.SUPERSEDED);
+        }
+
+        private boolean isSuperseded() {
+            return state.get() == TaskState.SUPERSEDED;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(TaskState.WAITING, TaskState.RUNNING)) {
+                return;
+            }
+            if (coalescingKey != null) {
+                latest.remove(coalescingKey, this);
+            }
+            startedAt = System.currentTimeMillis();
+            waiting.decrementAndGet();
+            try {
+                processing.run();
+            } catch (RuntimeException e) {
+                LOG.error("Processing of {} failed", description, e);
+            } finally {
+                LOG.debug("Processed {}, waited {} ms, processed in {} ms", description, startedAt - queuedAt,
+                        System.currentTimeMillis() - startedAt);
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (state.get()) {
+                case SUPERSEDED:
+                    return format("maintainer-plugin %s (superseded)", description);
+                case RUNNING:
+                    return format("maintainer-plugin %s (waited %d ms)", description, startedAt - queuedAt);
+                default:
+                    return format("maintainer-plugin %s (waiting %d ms, %d events waiting)", description,
+                            System.currentTimeMillis() - queuedAt, waiting.get());
+            }
+        }
+    }
+
+    // processes events of one ordering key one by one, all state is changed only within compute of lanes
+    private final class Lane implements Runnable {
+        private final Object key;
+        private final ScheduledExecutorService laneExecutor;
+        private final Deque<EventTask> tasks = new ArrayDeque<>();
+        private volatile EventTask head;
+
+        private Lane(final Object key, final ScheduledExecutorService laneExecutor) {
+            this.key = key;
+            this.laneExecutor = laneExecutor;
+        }
+
+        @Override
+        public void run() {
+            final EventTask[] next = new EventTask[1];
+            final long[] delay = new long[1];
+            lanes.computeIfPresent(key, (laneKey, lane) -> {
+                if (lane != this) {
+                    return lane;
+                }
+                while (!tasks.isEmpty() && tasks.peekFirst().isSuperseded()) {
+                    tasks.pollFirst();
+                }
+                if (tasks.isEmpty()) {
+                    head = null;
+                    return null;
+                }
+                head = tasks.peekFirst();
+                delay[0] = head.readyAt - System.currentTimeMillis();
+                if (delay[0] <= 0) {
+                    next[0] = tasks.pollFirst();
+                }
+                return lane;
+            });
+
+            if (next[0] == null) {
+                if (delay[0] > 0) {
+                    laneExecutor.schedule(this, delay[0], TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+
+            try {
+                next[0].run();
+            } finally {
+                // continues with next event of lane as new task, so that lanes share threads fairly
+                laneExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            final EventTask current = head;
+            return current == null
+                    ? format("maintainer-plugin events of %s", key)
+                    : current.toString();
+        }
+    }
+}
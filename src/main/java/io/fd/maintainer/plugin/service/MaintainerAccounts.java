@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gerrit.extensions.events.AccountIndexedListener;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.server.account.AccountByEmailCache;
+import com.google.gerrit.server.account.AccountCache;
+import com.google.gerrit.server.account.AccountState;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves maintainers to accounts by their email, and accounts back to emails they can be maintainers by.
+ * Both directions are cached, and entries of account are invalidated when account is reindexed.
+ */
+@Singleton
+public class MaintainerAccounts implements AccountIndexedListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainerAccounts.class);
+    private static final long CACHE_SIZE = 16 * 1024;
+
+    @Inject
+    private AccountByEmailCache accountByEmailCache;
+
+    @Inject
+    private AccountCache accountCache;
+
+    private final Cache<Maintainer, Optional<Account.Id>> accountIds = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+
+    private final Cache<Account.Id, Set<String>> emails = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+
+    /**
+     * Active account registered with email of maintainer. If there are more of them, the one with full name
+     * of maintainer is used.
+     */
+    public Optional<Account.Id> getAccountId(@Nonnull final Maintainer maintainer) {
+        try {
+            return accountIds.get(maintainer, () -> resolveAccountId(maintainer));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to resolve account of " + maintainer, e.getCause());
+        }
+    }
+
+    /**
+     * Normalized emails of account, by which it is referred to in maintainers file
+     */
+    public Set<String> getEmails(@Nonnull final Account.Id accountId) {
+        try {
+            return emails.get(accountId, () -> resolveEmails(accountId));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to resolve emails of account " + accountId, e.getCause());
+        }
+    }
+
+    @Override
+    public void onAccountIndexed(final int id) {
+        final Account.Id accountId = new Account.Id(id);
+        emails.invalidate(accountId);
+        // account may have lost email it was resolved by, or gained email of other maintainers
+        final Set<String> accountEmails = getEmails(accountId);
+        accountIds.asMap().entrySet().removeIf(entry -> !entry.getValue().isPresent()
+                || entry.getValue().get().equals(accountId)
+                || (entry.getKey().getEmail() != null
+                && accountEmails.contains(Maintainer.normalizeEmail(entry.getKey().getEmail()))));
+    }
+
+    private Optional<Account.Id> resolveAccountId(final Maintainer maintainer) {
+        if (maintainer.getEmail() == null || maintainer.getEmail().isEmpty()) {
+            LOG.warn("Maintainer {} has no email, not resolving account", maintainer.getName());
+            return Optional.empty();
+        }
+
+        // emails of accounts are looked up as registered, so both forms of email of maintainer are tried
+        final Set<Account.Id> accountIds = new HashSet<>(accountByEmailCache.get(maintainer.getEmail()));
+        final String normalizedEmail = Maintainer.normalizeEmail(maintainer.getEmail());
+        if (!normalizedEmail.equals(maintainer.getEmail())) {
+            accountIds.addAll(accountByEmailCache.get(normalizedEmail));
+        }
+
+        final List<AccountState> candidates = accountIds.stream()
+                .map(accountCache::get)
+                .filter(Objects::nonNull)
+                .filter(state -> state.getAccount().isActive())
+                .collect(Collectors.toList());
+        if (candidates.size() == 1) {
+            return Optional.of(candidates.get(0).getAccount().getId());
+        }
+
+        final List<AccountState> namedCandidates = candidates.stream()
+                .filter(state -> Objects.equals(maintainer.getName(), state.getAccount().getFullName()))
+                .collect(Collectors.toList());
+        if (namedCandidates.size() == 1) {
+            return Optional.of(namedCandidates.get(0).getAccount().getId());
+        }
+
+        LOG.warn("Unable to resolve single account for maintainer {}, {} accounts found", maintainer,
+                candidates.size());
+        return Optional.empty();
+    }
+
+    private Set<String> resolveEmails(final Account.Id accountId) {
+        final AccountState state = accountCache.get(accountId);
+        if (state == null) {
+            return Collections.emptySet();
+        }
+
+        final Set<String> accountEmails = new HashSet<>();
+        AccountState.getEmails(state.getExternalIds())
+                .forEach(email -> accountEmails.add(Maintainer.normalizeEmail(email)));
+        if (state.getAccount().getPreferredEmail() != null) {
+            accountEmails.add(Maintainer.normalizeEmail(state.getAccount().getPreferredEmail()));
+        }
+        return Collections.unmodifiableSet(accountEmails);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds most recent maintainers file in first parent history of commit, skipping commit itself.
+ * History is walked iteratively up to maximum depth, blob found is remembered for every commit
+ * that lookup passed, so that following lookups on the same branch stop at first already known commit.
+ */
+final class MaintainersFileLookup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersFileLookup.class);
+    private static final long MEMO_SIZE = 4096;
+
+    private final Cache<LookupKey, ObjectId> memo = CacheBuilder.newBuilder()
+            .maximumSize(MEMO_SIZE)
+            .build();
+
+    /**
+     * Tree entry of maintainers file in first parent of head commit, null if it's not there
+     */
+    @Nullable
+    ObjectId findEntry(@Nonnull final RevWalk revWalk, @Nonnull final RevCommit headCommit,
+                       @Nonnull final String maintainersFileName) throws IOException {
+        if (headCommit.getParentCount() == 0) {
+            return null;
+        }
+
+        final RevCommit parent = revWalk.parseCommit(headCommit.getParent(0));
+        try (TreeWalk treeWalk = TreeWalk.forPath(revWalk.getObjectReader(), maintainersFileName,
+                parent.getTree())) {
+            return treeWalk == null
+                    ? null
+                    : treeWalk.getObjectId(0);
+        }
+    }
+
+    /**
+     * Blob of maintainers file in most recent first parent ancestor of head commit that contains it
+     */
+    @Nonnull
+    ObjectId find(@Nonnull final RevWalk revWalk, @Nonnull final RevCommit headCommit,
+                  @Nonnull final String maintainersFileName, final int maxDepth) throws IOException {
+        final List<LookupKey> passed = new ArrayList<>();
+        RevCommit commit = headCommit;
+
+        for (int depth = 0; ; depth++) {
+            final LookupKey key = new LookupKey(commit, maintainersFileName);
+            final ObjectId knownBlobId = memo.getIfPresent(key);
+            if (knownBlobId != null) {
+                return remember(passed, knownBlobId);
+            }
+            if (depth == maxDepth) {
+                throw new IllegalStateException(format("Maintainers file %s not found within %s commits below %s",
+                        maintainersFileName, maxDepth, headCommit.name()));
+            }
+            passed.add(key);
+
+            final ObjectId blobId = findEntry(revWalk, commit, maintainersFileName);
+            if (blobId != null) {
+                LOG.info("Maintainers file found {} commits below {}", depth + 1, headCommit.name());
+                return remember(passed, blobId);
+            }
+
+            if (commit.getParentCount() == 0) {
+                throw new IllegalStateException(format("Root of branch reached with commit %s", commit.name()));
+            }
+            commit = revWalk.parseCommit(commit.getParent(0));
+        }
+    }
+
+    private ObjectId remember(final List<LookupKey> passed, final ObjectId blobId) {
+        final ObjectId copy = blobId.copy();
+        passed.forEach(key -> memo.put(key, copy));
+        return copy;
+    }
+
+    private static final class LookupKey {
+        private final ObjectId commitId;
+        private final String maintainersFileName;
+
+        private LookupKey(final ObjectId commitId, final String maintainersFileName) {
+            this.commitId = commitId.copy();
+            this.maintainersFileName = maintainersFileName;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final LookupKey that = (LookupKey) o;
+            return commitId.equals(that.commitId) && maintainersFileName.equals(that.maintainersFileName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(commitId, maintainersFileName);
+        }
+    }
+}
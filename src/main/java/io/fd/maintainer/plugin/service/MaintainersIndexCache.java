@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.Weigher;
+import com.google.gerrit.server.cache.CacheModule;
+import com.google.inject.Inject;
+import com.google.inject.Module;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Built maintainers indexes by id of maintainers file blob, so that all branches and projects
+ * that point to the same content of maintainers file share one index.
+ * Size of cache can be configured in gerrit.config, by memoryLimit of cache maintainers_index,
+ * weight of index is number of its component paths.
+ * Components of built indexes are stored by {@link MaintainersIndexStore}, so that maintainers files do not need
+ * to be read and parsed again after restart. Indexes of stored components are built by
+ * {@link MaintainersIndexWarmup} in background at plugin start, or on first use of their blob.
+ */
+@Singleton
+public class MaintainersIndexCache {
+
+    static final String CACHE_NAME = "maintainers_index";
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersIndexCache.class);
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 16 * 1024;
+
+    @Inject
+    @Named(CACHE_NAME)
+    private Cache<ObjectId, MaintainersIndex> cache;
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private MatchingPool matchingPool;
+
+    @Inject
+    private MaintainersIndexStore indexStore;
+
+    public static Module module() {
+        return new CacheModule() {
+            @Override
+            protected void configure() {
+                cache(CACHE_NAME, ObjectId.class, MaintainersIndex.class)
+                        .maximumWeight(DEFAULT_MAXIMUM_WEIGHT)
+                        .weigher(IndexWeigher.class);
+            }
+        };
+    }
+
+    /**
+     * Gets index for maintainers file blob, building it from maintainers provided by loader if not cached yet
+     */
+    public MaintainersIndex get(@Nonnull final ObjectId blobId,
+                                @Nonnull final Callable<List<ComponentInfo>> maintainersLoader) {
+        return getOrBuild(blobId, () -> build(loadComponents(blobId, maintainersLoader)));
+    }
+
+    /**
+     * Builds index for maintainers file blob if not cached yet. If index of previous blob is cached,
+     * new index is derived from it. Index of previous blob is kept, as other branches may still point to it,
+     * and is evicted by weight of cache once not used.
+     */
+    public void refresh(@Nullable final ObjectId staleBlobId, @Nonnull final ObjectId blobId,
+                        @Nonnull final Callable<List<ComponentInfo>> maintainersLoader) {
+        final MaintainersIndex staleIndex = staleBlobId != null
+                ? cache.getIfPresent(staleBlobId)
+                : null;
+        getOrBuild(blobId, () -> {
+            final List<ComponentInfo> components = loadComponents(blobId, maintainersLoader);
+            return staleIndex != null
+                    ? staleIndex.derive(components, settingsProvider.getGlobalSettings(), matchingPool.get())
+                    : build(components);
+        });
+    }
+
+    /**
+     * Builds indexes of all stored components that are not cached yet, least recently stored first, so that
+     * the most recent ones are kept if they do not fit the cache. Only parsing of maintainers files is saved,
+     * indexes themselves are built again.
+     */
+    public void buildStored() {
+        final long start = System.currentTimeMillis();
+        final List<ObjectId> blobIds = indexStore.getStoredBlobIds();
+        Collections.reverse(blobIds);
+        int built = 0;
+        for (ObjectId blobId : blobIds) {
+            if (cache.getIfPresent(blobId) != null) {
+                continue;
+            }
+            final Optional<List<ComponentInfo>> storedComponents = indexStore.load(blobId);
+            if (storedComponents.isPresent()) {
+                getOrBuild(blobId, () -> build(storedComponents.get()));
+                built++;
+            }
+        }
+        LOG.info("Built {} maintainers indexes of stored components in {} ms", built,
+                System.currentTimeMillis() - start);
+    }
+
+    private MaintainersIndex getOrBuild(final ObjectId blobId, final Callable<MaintainersIndex> builder) {
+        try {
+            return cache.get(blobId.copy(), builder);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(format("Unable to build maintainers index for %s", blobId.name()),
+                    e.getCause());
+        }
+    }
+
+    private List<ComponentInfo> loadComponents(final ObjectId blobId,
+                                               final Callable<List<ComponentInfo>> maintainersLoader)
+            throws Exception {
+        final Optional<List<ComponentInfo>> storedComponents = indexStore.load(blobId);
+        if (storedComponents.isPresent()) {
+            LOG.info("Building maintainers index for {} from stored components", blobId.name());
+            return storedComponents.get();
+        }
+
+        LOG.info("Building maintainers index for {}", blobId.name());
+        final List<ComponentInfo> components = maintainersLoader.call();
+        indexStore.save(blobId, components);
+        return components;
+    }
+
+    /**
+     * Builds index of provided components, that is not cached
+     */
+    public MaintainersIndex build(@Nonnull final List<ComponentInfo> components) {
+        return new MaintainersIndex(components, settingsProvider.getGlobalSettings(), matchingPool.get());
+    }
+
+    static class IndexWeigher implements Weigher<ObjectId, MaintainersIndex> {
+        @Override
+        public int weigh(final ObjectId blobId, final MaintainersIndex index) {
+            return index.getComponentPathCount();
+        }
+    }
+}
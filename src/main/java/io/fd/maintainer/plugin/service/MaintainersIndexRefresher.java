@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import javax.annotation.Nonnull;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Refreshes maintainers indexes in background after update of branches, so that first patchset after change
+ * of maintainers file does not wait for index to be built.
+ */
+@Singleton
+public class MaintainersIndexRefresher implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersIndexRefresher.class);
+    private static final String QUEUE_NAME = "MaintainersIndexRefresh";
+
+    @Inject
+    private WorkQueue workQueue;
+
+    @Inject
+    private MaintainersProvider maintainersProvider;
+
+    private WorkQueue.Executor executor;
+
+    public synchronized void refresh(@Nonnull final Project.NameKey project, @Nonnull final String refName,
+                                     @Nonnull final ObjectId oldRev, @Nonnull final ObjectId newRev) {
+        if (executor == null) {
+            LOG.warn("Refresh queue not started, ignoring update of {}", refName);
+            return;
+        }
+
+        executor.submit(() -> {
+            try {
+                maintainersProvider.refreshMaintainersIndex(project, refName, oldRev, newRev);
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to refresh maintainers index after update of {} in {}", refName, project, e);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        executor = workQueue.createQueue(1, QUEUE_NAME);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.unregisterWorkQueue();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import javax.annotation.Nonnull;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Components of maintainers files stored in plugin data directory by id of maintainers file blob,
+ * so that indexes can be built after restart without reading and parsing maintainers files.
+ * Stored files are read through memory mapping. File that is corrupted or written by different version
+ * of the format is deleted, and its index is built from maintainers file again.
+ * Only {@link #MAX_STORED} most recently stored indexes are kept.
+ */
+@Singleton
+public class MaintainersIndexStore {
+
+    static final int MAGIC = 0x4d4e5458;
+    static final int VERSION = 1;
+    static final int MAX_STORED = 64;
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersIndexStore.class);
+    private static final String DIRECTORY = "maintainers-index";
+    private static final String EXTENSION = ".bin";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private final Path directory;
+
+    @Inject
+    MaintainersIndexStore(@PluginData final Path dataDirectory) {
+        directory = dataDirectory.resolve(DIRECTORY);
+    }
+
+    /**
+     * Loads components stored for maintainers file blob, empty if not stored or not readable
+     */
+    public Optional<List<ComponentInfo>> load(@Nonnull final ObjectId blobId) {
+        final Path file = file(blobId);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(decode(buffer, blobId));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | IllegalStateException | BufferUnderflowException | IllegalArgumentException e) {
+            LOG.warn("Stored maintainers index {} is not readable, deleting", file, e);
+            delete(blobId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores components of maintainers file blob, failure to store is only logged
+     */
+    public void save(@Nonnull final ObjectId blobId, @Nonnull final List<ComponentInfo> components) {
+        final Path file = file(blobId);
+        try {
+            Files.createDirectories(directory);
+            final Path temporaryFile = directory.resolve(blobId.name() + TEMPORARY_EXTENSION);
+            Files.write(temporaryFile, encode(blobId, components));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to store maintainers index {}", file, e);
+            return;
+        }
+
+        // stale indexes are not deleted when maintainers file changes, as other branches may still use them
+        final List<ObjectId> storedBlobIds = getStoredBlobIds();
+        for (ObjectId staleBlobId : storedBlobIds.subList(Math.min(MAX_STORED, storedBlobIds.size()),
+                storedBlobIds.size())) {
+            LOG.debug("Deleting least recently stored maintainers index {}", staleBlobId.name());
+            delete(staleBlobId);
+        }
+    }
+
+    public void delete(@Nonnull final ObjectId blobId) {
+        try {
+            Files.deleteIfExists(file(blobId));
+        } catch (IOException e) {
+            LOG.warn("Unable to delete stored maintainers index for {}", blobId.name(), e);
+        }
+    }
+
+    /**
+     * Ids of all stored maintainers file blobs, most recently stored first
+     */
+    public List<ObjectId> getStoredBlobIds() {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+
+        final List<Path> files = new ArrayList<>();
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            LOG.warn("Unable to list stored maintainers indexes in {}", directory, e);
+            return new ArrayList<>();
+        }
+
+        files.sort(Comparator.comparing(MaintainersIndexStore::lastModified).reversed());
+        final List<ObjectId> blobIds = new ArrayList<>();
+        for (Path file : files) {
+            final String name = file.getFileName().toString();
+            final String blobName = name.substring(0, name.length() - EXTENSION.length());
+            if (ObjectId.isId(blobName)) {
+                blobIds.add(ObjectId.fromString(blobName));
+            }
+        }
+        return blobIds;
+    }
+
+    private Path file(final ObjectId blobId) {
+        return directory.resolve(blobId.name() + EXTENSION);
+    }
+
+    private static long lastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // magic, version, blob id, components, crc of everything before
+    static byte[] encode(final ObjectId blobId, final List<ComponentInfo> components) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        final byte[] rawBlobId = new byte[Constants.OBJECT_ID_LENGTH];
+        blobId.copyRawTo(rawBlobId, 0);
+        output.write(rawBlobId);
+
+        output.writeInt(components.size());
+        for (ComponentInfo component : components) {
+            writeString(output, component.getTitle());
+            output.writeInt(component.getMaintainers().size());
+            for (Maintainer maintainer : component.getMaintainers()) {
+                writeString(output, maintainer.getName());
+                writeString(output, maintainer.getEmail());
+            }
+            output.writeInt(component.getPaths().size());
+            for (ComponentPath path : component.getPaths()) {
+                writeString(output, path.getPath());
+            }
+            writeStrings(output, component.getComments());
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeInt((int) crc.getValue());
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<ComponentInfo> decode(final ByteBuffer buffer, final ObjectId blobId) {
+        checkFormat(buffer.remaining() >= Integer.BYTES, "missing checksum");
+        final ByteBuffer content = buffer.duplicate();
+        content.limit(buffer.limit() - Integer.BYTES);
+        final CRC32 crc = new CRC32();
+        final byte[] contentBytes = new byte[content.remaining()];
+        content.duplicate().get(contentBytes);
+        crc.update(contentBytes);
+        checkFormat((int) crc.getValue() == buffer.getInt(buffer.limit() - Integer.BYTES), "checksum mismatch");
+
+        checkFormat(content.getInt() == MAGIC, "unknown format");
+        final int version = content.getInt();
+        checkFormat(version == VERSION, "version %s", version);
+        final byte[] rawBlobId = new byte[Constants.OBJECT_ID_LENGTH];
+        content.get(rawBlobId);
+        checkFormat(ObjectId.fromRaw(rawBlobId).equals(blobId), "stored for different blob");
+
+        final int componentCount = readCount(content);
+        final List<ComponentInfo> components = new ArrayList<>(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            final String title = readString(content);
+            final int maintainerCount = readCount(content);
+            final Set<Maintainer> maintainers = new LinkedHashSet<>();
+            for (int j = 0; j < maintainerCount; j++) {
+                maintainers.add(new Maintainer(readString(content), readString(content)));
+            }
+            final int pathCount = readCount(content);
+            final Set<ComponentPath> paths = new LinkedHashSet<>();
+            for (int j = 0; j < pathCount; j++) {
+                paths.add(new ComponentPath(readString(content)));
+            }
+            components.add(new ComponentInfo.ComponentInfoBuilder()
+                    .setTitle(title)
+                    .setMaintainers(maintainers)
+                    .setPaths(paths)
+                    .setComments(readStrings(content))
+                    .createMaintainer());
+        }
+        checkFormat(!content.hasRemaining(), "trailing content");
+        return components;
+    }
+
+    private static void checkFormat(final boolean expression, final String message, final Object... arguments) {
+        if (!expression) {
+            throw new IllegalStateException(format("Invalid stored maintainers index, " + message, arguments));
+        }
+    }
+
+    // length -1 for null
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static void writeStrings(final DataOutputStream output, final Collection<String> values)
+            throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    private static int readCount(final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        checkFormat(count >= 0 && count <= buffer.remaining(), "count %s", count);
+        return count;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        checkFormat(length >= 0 && length <= buffer.remaining(), "string length %s", length);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Set<String> readStrings(final ByteBuffer buffer) {
+        final int count = readCount(buffer);
+        final Set<String> values = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        return values;
+    }
+}
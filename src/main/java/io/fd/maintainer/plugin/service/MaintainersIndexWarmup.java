@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.client.RefNames;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.parboiled.common.Tuple2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds maintainers indexes of stored components and of all configured branches in background at plugin start,
+ * and resolves accounts of their maintainers, so that first events do not wait for lookup and parsing
+ * of maintainers file, building of index nor account lookups. Events that come before warm-up finishes get
+ * their index built or wait for it as usual.
+ */
+@Singleton
+public class MaintainersIndexWarmup implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersIndexWarmup.class);
+    private static final String QUEUE_NAME = "MaintainersIndexWarmup";
+    private static final int PROGRESS_STEP = 100;
+
+    @Inject
+    private ProjectCache projectCache;
+
+    @Inject
+    private GitRepositoryManager manager;
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private MaintainersProvider maintainersProvider;
+
+    @Inject
+    private MaintainersIndexCache indexCache;
+
+    @Inject
+    private MaintainerAccounts maintainerAccounts;
+
+    @Inject
+    private WorkQueue workQueue;
+
+    private WorkQueue.Executor executor;
+
+    @Override
+    public synchronized void start() {
+        final int warmupThreads = settingsProvider.getGlobalSettings().getWarmupThreads();
+        if (warmupThreads == 0) {
+            LOG.info("Warm-up of maintainers indexes disabled");
+            return;
+        }
+
+        executor = workQueue.createQueue(warmupThreads, QUEUE_NAME);
+        // stored indexes need no git lookups, so they are built without waiting for branches to be listed
+        executor.submit(this::buildStored);
+        executor.submit(this::warmup);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.unregisterWorkQueue();
+            executor = null;
+        }
+    }
+
+    private synchronized void submit(final Runnable task) {
+        if (executor != null) {
+            executor.submit(task);
+        }
+    }
+
+    private void buildStored() {
+        try {
+            indexCache.buildStored();
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to build stored maintainers indexes", e);
+        }
+    }
+
+    private void warmup() {
+        final long start = System.currentTimeMillis();
+        final List<Tuple2<Project.NameKey, String>> branches = configuredBranches();
+        LOG.info("Warming up maintainers indexes of {} branches", branches.size());
+        if (branches.isEmpty()) {
+            LOG.info("Maintainers indexes of 0 branches warmed up in {} ms, 0 failed",
+                    System.currentTimeMillis() - start);
+            return;
+        }
+
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        for (Tuple2<Project.NameKey, String> branch : branches) {
+            submit(() -> {
+                try {
+                    maintainersProvider.getMaintainersIndex(branch.a, branch.b).getMaintainers()
+                            .forEach(component -> component.getMaintainers()
+                                    .forEach(maintainerAccounts::getAccountId));
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    LOG.warn("Unable to warm up maintainers index of {} in {}", branch.b, branch.a, e);
+                }
+
+                final int count = finished.incrementAndGet();
+                if (count == branches.size()) {
+                    LOG.info("Maintainers indexes of {} branches warmed up in {} ms, {} failed", count,
+                            System.currentTimeMillis() - start, failed.get());
+                } else if (count % PROGRESS_STEP == 0) {
+                    LOG.info("Warmed up maintainers indexes of {}/{} branches", count, branches.size());
+                }
+            });
+        }
+    }
+
+    // one branch for every distinct maintainers file reference of each project
+    private List<Tuple2<Project.NameKey, String>> configuredBranches() {
+        final List<Tuple2<Project.NameKey, String>> branches = new ArrayList<>();
+        for (Project.NameKey project : projectCache.all()) {
+            final Set<String> maintainersFiles = new HashSet<>();
+            try (final Repository repository = manager.openRepository(project)) {
+                for (Ref ref : repository.getRefDatabase().getRefs(RefNames.REFS_HEADS).values()) {
+                    final String branchName = ref.getName();
+                    if (!settingsProvider.isBranchConfigured(branchName)) {
+                        continue;
+                    }
+
+                    final PluginBranchSpecificSettings settings =
+                            settingsProvider.getBranchSpecificSettings(branchName);
+                    // ownership files are loaded by files of each change
+                    if (settings.getOwnersFileName() == null
+                            && maintainersFiles.add(settings.fullFileRef() + ":" + settings.getLocalFilePath())) {
+                        branches.add(new Tuple2<>(project, branchName));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                LOG.warn("Unable to list branches of {}", project, e);
+            }
+        }
+        return branches;
+    }
+}
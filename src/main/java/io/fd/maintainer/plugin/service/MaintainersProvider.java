@@ -19,32 +19,48 @@ package io.fd.maintainer.plugin.service;
 import static java.lang.String.format;
 import static java.util.Objects.nonNull;
 
-import com.google.gerrit.reviewdb.client.Change;
-import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.client.RefNames;
 import com.google.gerrit.server.git.GitRepositoryManager;
-import com.google.gwtorm.server.OrmException;
-import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
 import io.fd.maintainer.plugin.parser.MaintainerMismatchException;
 import io.fd.maintainer.plugin.parser.MaintainersParser;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.util.ClosestMatch;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.treewalk.filter.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,104 +68,296 @@ import org.slf4j.LoggerFactory;
 public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
 
     private static final Logger LOG = LoggerFactory.getLogger(MaintainersProvider.class);
+    private static final long OWNERS_CACHE_SIZE = 16384;
+    private static final long OWNERS_INDEX_CACHE_SIZE = 1024;
     final MaintainersParser maintainersParser;
+    private final MaintainersFileLookup maintainersFileLookup = new MaintainersFileLookup();
+    // parsed ownership files by blob id and directory
+    private final Cache<String, List<ComponentInfo>> ownersCache = CacheBuilder.newBuilder()
+            .maximumSize(OWNERS_CACHE_SIZE)
+            .build();
+    // merged indexes of ownership files by directories and blob ids of those files
+    private final Cache<List<String>, MaintainersIndex> ownersIndexCache = CacheBuilder.newBuilder()
+            .maximumSize(OWNERS_INDEX_CACHE_SIZE)
+            .build();
     @Inject
     private GitRepositoryManager manager;
     @Inject
     private SettingsProvider settingsProvider;
     @Inject
-    private SchemaFactory<ReviewDb> schemaFactory;
+    private MaintainersIndexCache indexCache;
 
     public MaintainersProvider() {
         maintainersParser = new MaintainersParser();
     }
 
+    /**
+     * Gets index for files of current patchset of change. If branch of change uses per-directory ownership files,
+     * index is built only from ownership files found in directories on the way from root to those files,
+     * otherwise it's index of maintainers file.
+     */
     @Nonnull
-    public List<ComponentInfo> getMaintainersInfo(@Nonnull final String branchName, final int changeNumber) {
+    public MaintainersIndex getMaintainersIndex(@Nonnull final ChangeContext context) {
+        final PluginBranchSpecificSettings settings = context.getSettings();
+        if (settings.getOwnersFileName() == null) {
+            return getMaintainersIndex(context.getProject(), context.getBranchName());
+        }
 
-        // get configuration for branch of change
-        final PluginBranchSpecificSettings settings = settingsProvider.getBranchSpecificSettings(branchName);
+        final Set<String> paths = new HashSet<>();
+        getRelevantPatchListEntries(context.getPatchList()).forEach(entry -> {
+            if (entry.getOldName() != null) {
+                paths.add(entry.getOldName());
+            }
+            paths.add(entry.getNewName());
+        });
+        return getOwnersIndex(context.getProject(), settings, paths);
+    }
 
-        try (final ReviewDb reviewDb = schemaFactory.open()) {
-            final Change change = reviewDb.changes().get(new Change.Id(changeNumber));
-            final String fullFileRef = settings.fullFileRef();
+    private MaintainersIndex getOwnersIndex(final Project.NameKey project,
+                                            final PluginBranchSpecificSettings settings,
+                                            final Collection<String> paths) {
+        final String fullFileRef = settings.fullFileRef();
+        final SortedSet<String> directories = ownersDirectories(paths);
 
-            try (final Repository repository = manager.openRepository(change.getProject())) {
+        try (final Repository repository = manager.openRepository(project);
+             final ObjectReader reader = repository.newObjectReader();
+             final RevWalk revWalk = new RevWalk(reader)) {
 
-                final Ref ref = Optional.ofNullable(repository.findRef(fullFileRef))
-                        .orElseThrow(() -> new IllegalStateException(
-                                format("Unable to get ref %s", fullFileRef)));
+            final Ref ref = Optional.ofNullable(repository.findRef(fullFileRef))
+                    .orElseThrow(() -> new IllegalStateException(
+                            format("Unable to get ref %s", fullFileRef)));
+            final RevTree tree = revWalk.parseCommit(ref.getObjectId()).getTree();
 
-                final RevCommit revCommit = new RevWalk(repository).parseCommit(ref.getObjectId());
+            // parent directories first, so that components keep order from root to leaves
+            final Map<String, ObjectId> ownersBlobs = new LinkedHashMap<>();
+            for (String directory : directories) {
+                try (TreeWalk treeWalk = TreeWalk.forPath(reader, directory + settings.getOwnersFileName(), tree)) {
+                    if (treeWalk != null) {
+                        ownersBlobs.put(directory, treeWalk.getObjectId(0));
+                    }
+                }
+            }
 
-                final String maintainersFileContent =
-                        findMostRecentMaintainersChangeContent(settings.getLocalFilePath(), repository,
-                                new RevWalk(repository), revCommit);
+            final List<String> key = ownersBlobs.entrySet().stream()
+                    .map(entry -> entry.getKey() + ":" + entry.getValue().name())
+                    .collect(Collectors.toList());
+            return ownersIndexCache.get(key, () -> {
+                final Map<String, List<ComponentInfo>> owners = new LinkedHashMap<>();
+                ownersBlobs.forEach((directory, blobId) ->
+                        owners.put(directory, getOwners(repository, blobId, directory)));
+                final List<ComponentInfo> components = mergeOwners(owners);
+                LOG.debug("Found {} owner components in {} directories", components.size(), owners.size());
+                return indexCache.build(components);
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Unable to build owners index", e.getCause());
+        }
+    }
 
-                if (nonNull(maintainersFileContent)) {
-                    return maintainersParser.parseMaintainers(maintainersFileContent);
-                } else {
-                    throw new IllegalStateException(
-                            format("Unable to find file %s in branch %s", settings.getLocalFilePath(),
-                                    fullFileRef));
+    /**
+     * Merges components of ownership files, given by directory from root to leaves. Title already used
+     * by ownership file of other directory is qualified by directory, components with the same title are merged.
+     * Path owned by component of other title stays with its first owner, that gets maintainers of later ones.
+     */
+    static List<ComponentInfo> mergeOwners(@Nonnull final Map<String, List<ComponentInfo>> ownersByDirectory) {
+        final Map<String, MergedOwners> byTitle = new LinkedHashMap<>();
+        final Map<ComponentPath, MergedOwners> byPath = new HashMap<>();
+        ownersByDirectory.forEach((directory, components) -> components.forEach(component -> {
+            final MergedOwners existing = byTitle.get(component.getTitle());
+            final String title = existing == null || existing.directory.equals(directory)
+                    ? component.getTitle()
+                    : directory + component.getTitle();
+            final MergedOwners merged = byTitle.computeIfAbsent(title, key -> new MergedOwners(directory));
+            merged.maintainers.addAll(component.getMaintainers());
+            merged.comments.addAll(component.getComments());
+            for (ComponentPath path : component.getPaths()) {
+                final MergedOwners owner = byPath.putIfAbsent(path, merged);
+                if (owner == null) {
+                    merged.paths.add(path);
+                } else if (owner != merged) {
+                    LOG.debug("Path {} of {} already owned, merging its maintainers", path, title);
+                    owner.maintainers.addAll(component.getMaintainers());
                 }
-            } catch (IOException | MaintainerMismatchException e) {
-                throw new IllegalStateException(e);
             }
+        }));
 
-        } catch (OrmException e) {
-            throw new IllegalStateException(e);
+        final List<ComponentInfo> components = new ArrayList<>(byTitle.size());
+        byTitle.forEach((title, merged) -> {
+            if (!merged.paths.isEmpty()) {
+                components.add(new ComponentInfo.ComponentInfoBuilder()
+                        .setTitle(title)
+                        .setMaintainers(merged.maintainers)
+                        .setPaths(merged.paths)
+                        .setComments(merged.comments)
+                        .createMaintainer());
+            }
+        });
+        return components;
+    }
+
+    private List<ComponentInfo> getOwners(final Repository repository, final ObjectId blobId,
+                                          final String directory) {
+        try {
+            return ownersCache.get(blobId.name() + ":" + directory, () -> {
+                try (final InputStream input = repository.open(blobId).openStream()) {
+                    return maintainersParser.parseOwners(input, directory);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(format("Unable to parse owners of %s", directory), e.getCause());
         }
     }
 
-    // skips head commit
-    private String findMostRecentMaintainersChangeContent(
-            final String maintainersFileName,
-            final Repository repository,
-            final RevWalk revWalk,
-            final RevCommit headCommit) {
-        LOG.info("Starting search at {}", headCommit);
-
-        final RevCommit parent = getRevCommit(revWalk, headCommit.getParent(0).getId());
-        LOG.info("Finding most recent maintainers file in {}", parent);
-
-
-        final String parentIdName = parent.getId().getName();
-        LOG.info("Parent id name {}", parentIdName);
-
-        try (TreeWalk treeWalk = new TreeWalk(repository)) {
-            treeWalk.addTree(parent.getTree());
-            treeWalk.setRecursive(true);
-            treeWalk.setFilter(PathFilter.create(maintainersFileName));
-            LOG.info("Attempting to find {}", maintainersFileName);
-
-            if (treeWalk.next()) {
-                LOG.info("Maintainers file found in commit {}", parent.getId());
-                ObjectId objectId = treeWalk.getObjectId(0);
-                ObjectLoader loader = repository.open(objectId);
-
-                // and then one can the loader to read the file
-                final ByteArrayOutputStream out = new ByteArrayOutputStream();
-                loader.copyTo(out);
-                revWalk.dispose();
-                return new String(out.toByteArray());
+    // root and all parent directories of paths, each ending with separator
+    private static SortedSet<String> ownersDirectories(final Collection<String> paths) {
+        final SortedSet<String> directories = new TreeSet<>();
+        directories.add("");
+        for (String path : paths) {
+            for (int end = path.indexOf('/'); end != -1; end = path.indexOf('/', end + 1)) {
+                directories.add(path.substring(0, end + 1));
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * Rebuilds indexes of maintainers files after update of ref that they are read from, by any configured branch
+     * of project or by updated ref itself. Index of previous maintainers file is kept for branches that may still
+     * use it. Updates that do not change maintainers files cost only comparison of their tree entries.
+     */
+    public void refreshMaintainersIndex(@Nonnull final Project.NameKey project, @Nonnull final String refName,
+                                        @Nonnull final ObjectId oldRev, @Nonnull final ObjectId newRev) {
+        try (final Repository repository = manager.openRepository(project);
+             final ObjectReader reader = repository.newObjectReader();
+             final RevWalk revWalk = new RevWalk(reader)) {
+
+            final Set<String> maintainersFileNames = maintainersFilesOfRef(repository, refName);
+            if (maintainersFileNames.isEmpty()) {
+                LOG.debug("Ref {} is not source of maintainers file, ignoring", refName);
+                return;
             }
 
-            LOG.info("Maintainers file not found in commit {}, going deep", parent.getId());
-            if (parent.getParents() == null) {
-                throw new IllegalStateException(format("Root of branch reached with commit %s", parent));
+            final RevCommit head = revWalk.parseCommit(newRev);
+            final RevCommit staleHead = ObjectId.zeroId().equals(oldRev)
+                    ? null
+                    : revWalk.parseCommit(oldRev);
+            for (String maintainersFileName : maintainersFileNames) {
+                refreshMaintainersIndex(repository, revWalk, refName, head, staleHead, maintainersFileName);
             }
-            return findMostRecentMaintainersChangeContent(maintainersFileName, repository, revWalk, parent);
         } catch (IOException e) {
-            throw new IllegalStateException(format("Unable to detect maintainers file in %s", parent.getId()));
+            throw new IllegalStateException(format("Unable to refresh maintainers index for %s", refName), e);
+        }
+    }
+
+    // maintainers files that configured branches read from ref, ownership files are loaded by files of each change
+    private Set<String> maintainersFilesOfRef(final Repository repository, final String refName) throws IOException {
+        final Set<String> maintainersFileNames = new LinkedHashSet<>();
+        for (Ref branch : repository.getRefDatabase().getRefs(RefNames.REFS_HEADS).values()) {
+            if (!branch.getName().equals(refName) && !settingsProvider.isBranchConfigured(branch.getName())) {
+                continue;
+            }
+
+            final PluginBranchSpecificSettings settings = settingsProvider.getBranchSpecificSettings(branch.getName());
+            if (settings.getOwnersFileName() != null) {
+                continue;
+            }
+            final Ref fileRef = repository.findRef(settings.fullFileRef());
+            if (fileRef != null && refName.equals(fileRef.getLeaf().getName())) {
+                maintainersFileNames.add(settings.getLocalFilePath());
+            }
         }
+        return maintainersFileNames;
     }
 
-    private RevCommit getRevCommit(final RevWalk revWalk, final ObjectId id) {
+    private void refreshMaintainersIndex(final Repository repository, final RevWalk revWalk, final String refName,
+                                         final RevCommit head, final RevCommit staleHead,
+                                         final String maintainersFileName) throws IOException {
+        final ObjectId blobId = maintainersFileLookup.findEntry(revWalk, head, maintainersFileName);
+        final ObjectId staleBlobId = staleHead == null
+                ? null
+                : maintainersFileLookup.findEntry(revWalk, staleHead, maintainersFileName);
+
+        if (nonNull(blobId) && blobId.equals(staleBlobId)) {
+            LOG.debug("Maintainers file {} not changed by update of {}", maintainersFileName, refName);
+            return;
+        }
+
+        final ObjectId currentBlobId;
         try {
-            return revWalk.parseCommit(id);
-        } catch (IOException e) {
-            throw new IllegalStateException(format("Unable to parse commit %s", id));
+            currentBlobId = nonNull(blobId)
+                    ? blobId
+                    : maintainersFileLookup.find(revWalk, head, maintainersFileName, maintainersLookupDepth());
+        } catch (IllegalStateException e) {
+            LOG.warn("Maintainers file {} not found after update of {}, not refreshing: {}", maintainersFileName,
+                    refName, e.getMessage());
+            return;
+        }
+        LOG.info("Maintainers file {} changed by update of {}, refreshing index for {}", maintainersFileName,
+                refName, currentBlobId.name());
+        indexCache.refresh(staleBlobId, currentBlobId, () -> parseMaintainers(repository, currentBlobId));
+    }
+
+    /**
+     * Gets index of maintainers file for branch of project
+     */
+    @Nonnull
+    public MaintainersIndex getMaintainersIndex(@Nonnull final Project.NameKey project,
+                                                @Nonnull final String branchName) {
+        return withMaintainersBlob(project, branchName, (repository, blobId) ->
+                indexCache.get(blobId, () -> parseMaintainers(repository, blobId)));
+    }
+
+    private <T> T withMaintainersBlob(final Project.NameKey project, final String branchName,
+                                      final MaintainersBlobFunction<T> function) {
+
+        // get configuration for branch
+        final PluginBranchSpecificSettings settings = settingsProvider.getBranchSpecificSettings(branchName);
+        final String fullFileRef = settings.fullFileRef();
+
+        try (final Repository repository = manager.openRepository(project);
+             final ObjectReader reader = repository.newObjectReader();
+             final RevWalk revWalk = new RevWalk(reader)) {
+
+            final Ref ref = Optional.ofNullable(repository.findRef(fullFileRef))
+                    .orElseThrow(() -> new IllegalStateException(
+                            format("Unable to get ref %s", fullFileRef)));
+
+            final RevCommit revCommit = revWalk.parseCommit(ref.getObjectId());
+
+            final ObjectId maintainersBlobId = maintainersFileLookup.find(revWalk, revCommit,
+                    settings.getLocalFilePath(), maintainersLookupDepth());
+            return function.apply(repository, maintainersBlobId);
+        } catch (IOException | MaintainerMismatchException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<ComponentInfo> parseMaintainers(final Repository repository, final ObjectId blobId)
+            throws IOException, MaintainerMismatchException {
+        try (final InputStream input = repository.open(blobId).openStream()) {
+            return maintainersParser.parseMaintainers(input);
+        }
+    }
+
+    private int maintainersLookupDepth() {
+        return settingsProvider.getGlobalSettings().getMaintainersLookupDepth();
+    }
+
+    private static final class MergedOwners {
+        private final String directory;
+        private final Set<Maintainer> maintainers = new LinkedHashSet<>();
+        private final Set<ComponentPath> paths = new LinkedHashSet<>();
+        private final Set<String> comments = new LinkedHashSet<>();
+
+        private MergedOwners(final String directory) {
+            this.directory = directory;
         }
     }
+
+    @FunctionalInterface
+    private interface MaintainersBlobFunction<T> {
+        T apply(Repository repository, ObjectId blobId) throws IOException, MaintainerMismatchException;
+    }
 }
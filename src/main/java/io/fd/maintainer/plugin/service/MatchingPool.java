@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dedicated pool for parallel matching of very large patchsets, so that matching does not compete
+ * with other users of common pool. Pool is created on first use and shut down with plugin.
+ */
+@Singleton
+public class MatchingPool implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MatchingPool.class);
+    private static final String THREAD_NAME_PREFIX = "maintainer-plugin-matching-";
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    private ForkJoinPool pool;
+
+    public synchronized ForkJoinPool get() {
+        if (pool == null) {
+            final int parallelism = settingsProvider.getGlobalSettings().getParallelism();
+            LOG.info("Creating matching pool with parallelism {}", parallelism);
+            pool = new ForkJoinPool(parallelism, currentPool -> {
+                final ForkJoinWorkerThread thread =
+                        ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(currentPool);
+                thread.setName(THREAD_NAME_PREFIX + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    @Override
+    public void start() {
+        // created on first use
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (pool != null) {
+            LOG.info("Shutting down matching pool");
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+}
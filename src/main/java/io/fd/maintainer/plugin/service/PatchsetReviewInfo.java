@@ -18,15 +18,16 @@ package io.fd.maintainer.plugin.service;
 
 import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.server.patch.PatchList;
+import com.google.gerrit.server.patch.PatchListEntry;
 import io.fd.maintainer.plugin.parser.ComponentPath;
 import io.fd.maintainer.plugin.util.MaintainersIndex;
+import io.fd.maintainer.plugin.util.PatchListMatch;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
-import org.parboiled.common.Tuple2;
 
 public class PatchsetReviewInfo implements PatchListProcessing {
 
@@ -35,34 +36,34 @@ public class PatchsetReviewInfo implements PatchListProcessing {
 
     public PatchsetReviewInfo(@Nonnull final MaintainersIndex index,
                               @Nonnull final PatchList patchList,
-                              @Nonnull final Set<Account> currentVerificationAuthors) {
-        final Set<String> componentsForPatchlist = getRelevantPatchListEntries(patchList)
-                .stream()
-                .map(patchListEntry -> {
-                    final Tuple2<Set<ComponentPath>, Set<ComponentPath>> componentTuple =
-                            index.getComponentPathsForEntry(patchListEntry);
-                    if (getRelevantChangeName(patchListEntry).equals(patchListEntry.getOldName())) {
-                        return componentTuple.a;
-                    } else {
-                        return componentTuple.b;
-                    }
-                })
-                .flatMap(Collection::stream)
-                .map(index::getComponentForPath)
-                .filter(index::isReviewComponent)
-                .collect(Collectors.toSet());
-        final Set<String> componentsCurrentlyReviewed = currentVerificationAuthors.stream()
-                .map(account -> index.getComponentsForMaintainer(account.getFullName()))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
+                              @Nonnull final Set<Account.Id> currentVerificationAuthors,
+                              @Nonnull final MaintainerAccounts maintainerAccounts) {
+        final PatchListMatch patchListMatch = index.matchAll(patchList);
+        // components are compared by their ids
+        final BitSet missingComponents = new BitSet();
+        for (PatchListEntry entry : patchListMatch.getEntries()) {
+            for (ComponentPath path : patchListMatch.getComponentPaths(getRelevantChangeName(entry))) {
+                final int componentId = index.getComponentIdForPath(path);
+                if (index.isReviewComponent(componentId)) {
+                    missingComponents.set(componentId);
+                }
+            }
+        }
+        final BitSet componentsCurrentlyReviewed = new BitSet();
+        // verification authors are matched to maintainers by their emails
+        currentVerificationAuthors.stream()
+                .map(maintainerAccounts::getEmails)
+                .flatMap(Set::stream)
+                .forEach(email -> index.addComponentIdsForMaintainerEmail(email, componentsCurrentlyReviewed));
+        missingComponents.andNot(componentsCurrentlyReviewed);
 
-        if (componentsCurrentlyReviewed.containsAll(componentsForPatchlist)) {
+        if (missingComponents.isEmpty()) {
             reviewState = ReviewState.ALL_COMPONENTS_REVIEWED;
             missingComponentReview = Collections.emptySet();
         } else {
             reviewState = ReviewState.MISSING_COMPONENT_REVIEW;
-            missingComponentReview = componentsForPatchlist.stream()
-                    .filter(component -> !componentsCurrentlyReviewed.contains(component))
+            missingComponentReview = missingComponents.stream()
+                    .mapToObj(index::getComponentTitle)
                     .collect(Collectors.toSet());
         }
     }
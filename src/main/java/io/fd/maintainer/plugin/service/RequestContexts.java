@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.server.CurrentUser;
+import com.google.gerrit.server.account.AccountCache;
+import com.google.gerrit.server.account.AccountState;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.gerrit.server.util.RequestContext;
+import com.google.gerrit.server.util.ThreadLocalRequestContext;
+import com.google.gwtorm.server.OrmException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Request contexts for work done outside of thread that dispatched event. Threads of plugin queues have no
+ * request context of their own, and gerrit would treat them as anonymous user.
+ */
+@Singleton
+public class RequestContexts {
+
+    @Inject
+    private ThreadLocalRequestContext threadLocalRequestContext;
+
+    @Inject
+    private OneOffRequestContext oneOffRequestContext;
+
+    @Inject
+    private AccountCache accountCache;
+
+    /**
+     * Task that runs as user of current thread, or as internal user if current thread has no identified user
+     */
+    public Runnable propagate(@Nonnull final Runnable task) {
+        final CurrentUser user = getCurrentUser();
+        final Account.Id accountId = user != null && user.isIdentifiedUser()
+                ? user.asIdentifiedUser().getAccountId()
+                : null;
+        return () -> {
+            try (final ManualRequestContext ignored = accountId != null
+                    ? oneOffRequestContext.openAs(accountId)
+                    : oneOffRequestContext.open()) {
+                task.run();
+            } catch (OrmException e) {
+                throw new IllegalStateException("Unable to open request context", e);
+            }
+        };
+    }
+
+    /**
+     * Opens request context of user with given name on current thread, closing it restores previous context
+     */
+    public ManualRequestContext openAs(@Nonnull final String userName) {
+        final AccountState account = accountCache.getByUsername(userName);
+        if (account == null) {
+            throw new IllegalStateException(format("Unable to find account of user %s", userName));
+        }
+        try {
+            return oneOffRequestContext.openAs(account.getAccount().getId());
+        } catch (OrmException e) {
+            throw new IllegalStateException(format("Unable to open request context of user %s", userName), e);
+        }
+    }
+
+    /**
+     * Tells whether current thread runs as user with given name
+     */
+    public boolean isCurrentUser(@Nullable final String userName) {
+        final CurrentUser user = getCurrentUser();
+        return userName != null && user != null && userName.equals(user.getUserName());
+    }
+
+    private CurrentUser getCurrentUser() {
+        final RequestContext context = threadLocalRequestContext.getContext();
+        return context == null
+                ? null
+                : context.getUser();
+    }
+}
@@ -18,13 +18,17 @@ package io.fd.maintainer.plugin.service;
 
 import static java.lang.String.format;
 
+import com.google.gerrit.extensions.api.changes.NotifyHandling;
 import com.google.gerrit.reviewdb.client.RefNames;
 import com.google.gerrit.server.config.PluginConfigFactory;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
 import io.fd.maintainer.plugin.util.ClosestMatch;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import org.eclipse.jgit.lib.Config;
@@ -38,6 +42,7 @@ public final class SettingsProvider implements ClosestMatch {
 
     private static final String MAINTAINER_PLUGIN = "maintainer";
     private static final String BRANCH_SECTION = "branch";
+    private static final String BRANCH_WILDCARD = "*";
 
     private static final String PLUGIN_USER = "pluginuser";
 
@@ -47,6 +52,8 @@ public final class SettingsProvider implements ClosestMatch {
     private static final String MAINTAINERS_FILE_REF = "maintainerfile";
     private static final String DEFAULT_MAINTAINERS_FILE_REF = "MAINTAINERS";
 
+    private static final String OWNERS_FILE = "ownersfile";
+
     private static final String ALLOW_SUBMIT = "allowmaintainersubmit";
     private static final boolean DEFAULT_ALLOW_SUBMIT = false;
 
@@ -56,6 +63,35 @@ public final class SettingsProvider implements ClosestMatch {
     private static final String AUTO_SUBMIT = "autosubmit";
     private static final boolean DEFAULT_AUTO_SUBMIT = false;
 
+    private static final String COMBINED_REVIEW = "combinedreview";
+    private static final boolean DEFAULT_COMBINED_REVIEW = false;
+
+    private static final String REVIEW_NOTIFY = "reviewnotify";
+    private static final NotifyHandling DEFAULT_REVIEW_NOTIFY = NotifyHandling.ALL;
+
+    private static final String INDEX_SECTION = "index";
+
+    private static final String REVIEW_INFO_CACHE_WEIGHT = "reviewinfocacheweight";
+    private static final String DIRECTORY_AGGREGATION_THRESHOLD = "directoryaggregationthreshold";
+    private static final String PARALLEL_THRESHOLD = "parallelthreshold";
+    private static final String PARALLELISM = "parallelism";
+    private static final String MAINTAINERS_LOOKUP_DEPTH = "maintainerslookupdepth";
+    private static final String WARMUP_THREADS = "warmupthreads";
+
+    private static final String EVENTS_SECTION = "events";
+
+    private static final String EVENT_THREADS = "threads";
+    private static final String EVENT_QUEUE_CAPACITY = "queuecapacity";
+    private static final String EVENT_QUEUE_OVERFLOW = "overflow";
+    private static final String EVENT_QUIET_WINDOW = "quietwindow";
+    private static final String EVENT_VIRTUAL_THREADS = "virtualthreads";
+
+    private static final String PUSH_SECTION = "push";
+
+    private static final String PUSH_RETRIES = "retries";
+    private static final String PUSH_RETRY_DELAY = "retrydelay";
+    private static final String PUSH_MAX_RETRY_DELAY = "maxretrydelay";
+
     @Inject
     private PluginConfigFactory cfg;
 
@@ -69,14 +105,63 @@ public final class SettingsProvider implements ClosestMatch {
         return getSettingsForBranch(fullBranchName, closesBranchMatch(fullBranchName));
     }
 
+    /**
+     * Tells whether branch is configured by its own section, or by section with trailing wildcard that covers it
+     */
+    public boolean isBranchConfigured(@Nonnull final String branchName) {
+        return globalPluginConfig().getSubsections(BRANCH_SECTION).stream()
+                .anyMatch(subSection -> subSection.equals(branchName)
+                        || subSection.endsWith(BRANCH_WILDCARD)
+                        && branchName.startsWith(subSection.substring(0, subSection.length() - 1)));
+    }
+
+    public PluginGlobalSettings getGlobalSettings() {
+        final Config config = globalPluginConfig();
+        return new PluginGlobalSettings.GlobalSettingsBuilder()
+                .setReviewInfoCacheWeight(config.getLong(INDEX_SECTION, null, REVIEW_INFO_CACHE_WEIGHT,
+                        PluginGlobalSettings.DEFAULT_REVIEW_INFO_CACHE_WEIGHT))
+                .setDirectoryAggregationThreshold(config.getInt(INDEX_SECTION, null, DIRECTORY_AGGREGATION_THRESHOLD,
+                        PluginGlobalSettings.DEFAULT_DIRECTORY_AGGREGATION_THRESHOLD))
+                .setParallelThreshold(config.getInt(INDEX_SECTION, null, PARALLEL_THRESHOLD,
+                        PluginGlobalSettings.DEFAULT_PARALLEL_THRESHOLD))
+                .setParallelism(Math.max(1, config.getInt(INDEX_SECTION, null, PARALLELISM,
+                        Runtime.getRuntime().availableProcessors())))
+                .setMaintainersLookupDepth(config.getInt(INDEX_SECTION, null, MAINTAINERS_LOOKUP_DEPTH,
+                        PluginGlobalSettings.DEFAULT_MAINTAINERS_LOOKUP_DEPTH))
+                .setWarmupThreads(Math.max(0, config.getInt(INDEX_SECTION, null, WARMUP_THREADS,
+                        PluginGlobalSettings.DEFAULT_WARMUP_THREADS)))
+                .setEventThreads(Math.max(0, config.getInt(EVENTS_SECTION, null, EVENT_THREADS,
+                        PluginGlobalSettings.DEFAULT_EVENT_THREADS)))
+                .setEventQueueCapacity(Math.max(1, config.getInt(EVENTS_SECTION, null, EVENT_QUEUE_CAPACITY,
+                        PluginGlobalSettings.DEFAULT_EVENT_QUEUE_CAPACITY)))
+                .setEventQueueOverflow(config.getEnum(EVENTS_SECTION, null, EVENT_QUEUE_OVERFLOW,
+                        PluginGlobalSettings.DEFAULT_EVENT_QUEUE_OVERFLOW))
+                .setEventQuietWindow(Math.max(0, config.getTimeUnit(EVENTS_SECTION, null, EVENT_QUIET_WINDOW,
+                        PluginGlobalSettings.DEFAULT_EVENT_QUIET_WINDOW, TimeUnit.MILLISECONDS)))
+                .setEventVirtualThreads(Math.max(0, config.getInt(EVENTS_SECTION, null, EVENT_VIRTUAL_THREADS,
+                        PluginGlobalSettings.DEFAULT_EVENT_VIRTUAL_THREADS)))
+                .setPushRetries(Math.max(0, config.getInt(PUSH_SECTION, null, PUSH_RETRIES,
+                        PluginGlobalSettings.DEFAULT_PUSH_RETRIES)))
+                .setPushRetryDelay(Math.max(1, config.getTimeUnit(PUSH_SECTION, null, PUSH_RETRY_DELAY,
+                        PluginGlobalSettings.DEFAULT_PUSH_RETRY_DELAY, TimeUnit.MILLISECONDS)))
+                .setPushMaxRetryDelay(Math.max(1, config.getTimeUnit(PUSH_SECTION, null, PUSH_MAX_RETRY_DELAY,
+                        PluginGlobalSettings.DEFAULT_PUSH_MAX_RETRY_DELAY, TimeUnit.MILLISECONDS)))
+                .createGlobalSettings();
+    }
+
     private PluginBranchSpecificSettings getSettingsForBranch(final String branchName, final String closestBranch) {
         return new PluginBranchSpecificSettings.PluginSettingsBuilder()
                 .setPluginUserName(pluginUserOrThrow(branchName, closestBranch))
                 .setLocalFilePath(fileNameRefOrDefault(branchName, closestBranch))
                 .setFileRef(filePathRefOrDefault(branchName, closestBranch))
+                .setOwnersFileName(getKey(branchName, closestBranch, OWNERS_FILE, null, String::valueOf))
                 .setAllowMaintainersSubmit(allowMaintainersSubmitOrDefault(branchName, closestBranch))
                 .setAutoAddReviewers(autoAddReviewersOrDefault(branchName, closestBranch))
                 .setAutoSubmit(autoSubmitOrDefault(branchName, closestBranch))
+                .setCombinedReview(getKey(branchName, closestBranch, COMBINED_REVIEW, DEFAULT_COMBINED_REVIEW,
+                        Boolean::valueOf))
+                .setReviewNotify(getKey(branchName, closestBranch, REVIEW_NOTIFY, DEFAULT_REVIEW_NOTIFY,
+                        SettingsProvider::reviewNotifyOrDefault))
                 .setBranch(globalPluginConfig().getSubsections(BRANCH_SECTION)
                         .stream()
                         .filter(subSection -> subSection.equals(branchName))
@@ -110,25 +195,33 @@ public final class SettingsProvider implements ClosestMatch {
                                      final String alternativeBranch) {
         final Config config = globalPluginConfig();
         return Optional.ofNullable(config.getString(BRANCH_SECTION, branch, PLUGIN_USER))
-                .orElse(Optional.ofNullable(config.getString(BRANCH_SECTION, alternativeBranch, PLUGIN_USER))
+                .orElseGet(() -> Optional.ofNullable(config.getString(BRANCH_SECTION, alternativeBranch, PLUGIN_USER))
                         .orElseThrow(() -> {
                             LOG.error("Plugin user not specified for branch {}", branch);
                             return new IllegalStateException(format("Plugin user not specified for branch %s", branch));
                         }));
     }
 
+    private static NotifyHandling reviewNotifyOrDefault(final String value) {
+        try {
+            return NotifyHandling.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid {} value {}, using {}", REVIEW_NOTIFY, value, DEFAULT_REVIEW_NOTIFY);
+            return DEFAULT_REVIEW_NOTIFY;
+        }
+    }
+
     private <T> T getKey(final String branch,
                          final String alternativeBranch,
                          final String subKey,
                          final T defaultValue,
                          final Function<String, T> mapTo) {
-        return Optional.ofNullable(globalPluginConfig()
-                .getString(BRANCH_SECTION, branch, subKey))
+        // only value that is used gets mapped, so that invalid value of alternative branch does not matter
+        final Config config = globalPluginConfig();
+        return Optional.ofNullable(Optional.ofNullable(config.getString(BRANCH_SECTION, branch, subKey))
+                .orElseGet(() -> config.getString(BRANCH_SECTION, alternativeBranch, subKey)))
                 .map(mapTo)
-                .orElse(Optional.ofNullable(
-                        globalPluginConfig().getString(BRANCH_SECTION, alternativeBranch, subKey))
-                        .map(mapTo)
-                        .orElse(defaultValue));
+                .orElse(defaultValue);
     }
 
     private Config globalPluginConfig() {
@@ -16,6 +16,7 @@
 
 package io.fd.maintainer.plugin.service.dto;
 
+import com.google.gerrit.extensions.api.changes.NotifyHandling;
 import com.google.gerrit.reviewdb.client.RefNames;
 
 public class PluginBranchSpecificSettings {
@@ -26,24 +27,33 @@ public class PluginBranchSpecificSettings {
     private final String branch;
     private final String fileRef;
     private final String localFilePath;
+    private final String ownersFileName;
     private final boolean allowMaintainersSubmit;
     private final boolean autoAddReviewers;
     private final boolean autoSubmit;
+    private final boolean combinedReview;
+    private final NotifyHandling reviewNotify;
 
     private PluginBranchSpecificSettings(final String pluginUserName,
                                          final String branch,
                                          final String fileRef,
                                          final String localFilePath,
+                                         final String ownersFileName,
                                          final boolean allowMaintainersSubmit,
                                          final boolean autoAddReviewers,
-                                         final boolean autoSubmit) {
+                                         final boolean autoSubmit,
+                                         final boolean combinedReview,
+                                         final NotifyHandling reviewNotify) {
         this.pluginUserName = pluginUserName;
         this.branch = branch;
         this.fileRef = fileRef;
         this.localFilePath = localFilePath;
+        this.ownersFileName = ownersFileName;
         this.allowMaintainersSubmit = allowMaintainersSubmit;
         this.autoAddReviewers = autoAddReviewers;
         this.autoSubmit = autoSubmit;
+        this.combinedReview = combinedReview;
+        this.reviewNotify = reviewNotify;
     }
 
     public String getFileRef() {
@@ -54,6 +64,13 @@ public class PluginBranchSpecificSettings {
         return localFilePath;
     }
 
+    /**
+     * Name of per-directory ownership files, null if ownership is defined by single maintainers file
+     */
+    public String getOwnersFileName() {
+        return ownersFileName;
+    }
+
     public boolean isAllowMaintainersSubmit() {
         return allowMaintainersSubmit;
     }
@@ -66,6 +83,20 @@ public class PluginBranchSpecificSettings {
         return autoSubmit;
     }
 
+    /**
+     * Tells whether reviewers, ownership report and warnings are posted as single review of patchset
+     */
+    public boolean isCombinedReview() {
+        return combinedReview;
+    }
+
+    /**
+     * Notification of combined review
+     */
+    public NotifyHandling getReviewNotify() {
+        return reviewNotify;
+    }
+
     public String fullFileRef() {
         return branch.concat(fileRef);
     }
@@ -80,8 +111,11 @@ public class PluginBranchSpecificSettings {
                 "branch='" + branch + '\'' +
                 ", fileRef='" + fileRef + '\'' +
                 ", localFilePath='" + localFilePath + '\'' +
+                ", ownersFileName='" + ownersFileName + '\'' +
                 ", allowMaintainersSubmit=" + allowMaintainersSubmit +
                 ", autoAddReviewers=" + autoAddReviewers +
+                ", combinedReview=" + combinedReview +
+                ", reviewNotify=" + reviewNotify +
                 '}';
     }
 
@@ -90,9 +124,12 @@ public class PluginBranchSpecificSettings {
         private String branch;
         private String fileRef;
         private String localFilePath;
+        private String ownersFileName;
         private boolean allowMaintainersSubmit;
         private boolean autoAddReviewers;
         private boolean autoSubmit;
+        private boolean combinedReview;
+        private NotifyHandling reviewNotify = NotifyHandling.ALL;
 
         private static String reduceWildcard(String input) {
             return input.contains("*")
@@ -122,6 +159,11 @@ public class PluginBranchSpecificSettings {
             return this;
         }
 
+        public PluginSettingsBuilder setOwnersFileName(final String ownersFileName) {
+            this.ownersFileName = ownersFileName;
+            return this;
+        }
+
         public PluginSettingsBuilder setAllowMaintainersSubmit(final boolean allowMaintainersSubmit) {
             this.allowMaintainersSubmit = allowMaintainersSubmit;
             return this;
@@ -142,9 +184,19 @@ public class PluginBranchSpecificSettings {
             return this;
         }
 
+        public PluginSettingsBuilder setCombinedReview(final boolean combinedReview) {
+            this.combinedReview = combinedReview;
+            return this;
+        }
+
+        public PluginSettingsBuilder setReviewNotify(final NotifyHandling reviewNotify) {
+            this.reviewNotify = reviewNotify;
+            return this;
+        }
+
         public PluginBranchSpecificSettings createPluginSettings() {
-            return new PluginBranchSpecificSettings(pluginUserName, branch, fileRef, localFilePath,
-                    allowMaintainersSubmit, autoAddReviewers, autoSubmit);
+            return new PluginBranchSpecificSettings(pluginUserName, branch, fileRef, localFilePath, ownersFileName,
+                    allowMaintainersSubmit, autoAddReviewers, autoSubmit, combinedReview, reviewNotify);
         }
     }
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service.dto;
+
+/**
+ * Settings that are not specific to any branch
+ */
+public class PluginGlobalSettings {
+
+    public static final long DEFAULT_REVIEW_INFO_CACHE_WEIGHT = 1024 * 1024;
+    public static final int DEFAULT_DIRECTORY_AGGREGATION_THRESHOLD = 500;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 2000;
+    public static final int DEFAULT_MAINTAINERS_LOOKUP_DEPTH = 10000;
+    public static final int DEFAULT_WARMUP_THREADS = 2;
+    public static final int DEFAULT_EVENT_THREADS = 2;
+    public static final int DEFAULT_EVENT_QUEUE_CAPACITY = 1000;
+    public static final OverflowPolicy DEFAULT_EVENT_QUEUE_OVERFLOW = OverflowPolicy.DISCARD;
+    public static final long DEFAULT_EVENT_QUIET_WINDOW = 1000;
+    public static final int DEFAULT_EVENT_VIRTUAL_THREADS = 0;
+    public static final int DEFAULT_PUSH_RETRIES = 5;
+    public static final long DEFAULT_PUSH_RETRY_DELAY = 10000;
+    public static final long DEFAULT_PUSH_MAX_RETRY_DELAY = 600000;
+
+    private final long reviewInfoCacheWeight;
+    private final int directoryAggregationThreshold;
+    private final int parallelThreshold;
+    private final int parallelism;
+    private final int maintainersLookupDepth;
+    private final int warmupThreads;
+    private final int eventThreads;
+    private final int eventQueueCapacity;
+    private final OverflowPolicy eventQueueOverflow;
+    private final long eventQuietWindow;
+    private final int eventVirtualThreads;
+    private final int pushRetries;
+    private final long pushRetryDelay;
+    private final long pushMaxRetryDelay;
+
+    private PluginGlobalSettings(final long reviewInfoCacheWeight, final int directoryAggregationThreshold,
+                                 final int parallelThreshold, final int parallelism,
+                                 final int maintainersLookupDepth, final int warmupThreads,
+                                 final int eventThreads, final int eventQueueCapacity,
+                                 final OverflowPolicy eventQueueOverflow, final long eventQuietWindow,
+                                 final int eventVirtualThreads, final int pushRetries, final long pushRetryDelay,
+                                 final long pushMaxRetryDelay) {
+        this.reviewInfoCacheWeight = reviewInfoCacheWeight;
+        this.directoryAggregationThreshold = directoryAggregationThreshold;
+        this.parallelThreshold = parallelThreshold;
+        this.parallelism = parallelism;
+        this.maintainersLookupDepth = maintainersLookupDepth;
+        this.warmupThreads = warmupThreads;
+        this.eventThreads = eventThreads;
+        this.eventQueueCapacity = eventQueueCapacity;
+        this.eventQueueOverflow = eventQueueOverflow;
+        this.eventQuietWindow = eventQuietWindow;
+        this.eventVirtualThreads = eventVirtualThreads;
+        this.pushRetries = pushRetries;
+        this.pushRetryDelay = pushRetryDelay;
+        this.pushMaxRetryDelay = pushMaxRetryDelay;
+    }
+
+    /**
+     * Maximum weight of resolved paths memoized per maintainers index, roughly number of characters of cached paths
+     */
+    public long getReviewInfoCacheWeight() {
+        return reviewInfoCacheWeight;
+    }
+
+    /**
+     * Number of patchset files above which files are resolved per directory instead of one by one
+     */
+    public int getDirectoryAggregationThreshold() {
+        return directoryAggregationThreshold;
+    }
+
+    /**
+     * Number of patchset files above which files are resolved in parallel
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Number of threads used for parallel resolution
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Maximum number of commits searched for most recent maintainers file
+     */
+    public int getMaintainersLookupDepth() {
+        return maintainersLookupDepth;
+    }
+
+    /**
+     * Number of threads building indexes at plugin start, 0 disables warm-up
+     */
+    public int getWarmupThreads() {
+        return warmupThreads;
+    }
+
+    /**
+     * Number of threads processing events, 0 processes events on thread that dispatched them
+     */
+    public int getEventThreads() {
+        return eventThreads;
+    }
+
+    /**
+     * Maximum number of events waiting for processing
+     */
+    public int getEventQueueCapacity() {
+        return eventQueueCapacity;
+    }
+
+    /**
+     * What happens with event that does not fit into full queue
+     */
+    public OverflowPolicy getEventQueueOverflow() {
+        return eventQueueOverflow;
+    }
+
+    /**
+     * Milliseconds for which events of the same change are collected, only the latest of them is processed.
+     * 0 disables coalescing.
+     */
+    public long getEventQuietWindow() {
+        return eventQuietWindow;
+    }
+
+    /**
+     * Maximum number of events processed at once by virtual threads, if JVM supports them.
+     * 0 processes events by {@link #getEventThreads()} platform threads.
+     */
+    public int getEventVirtualThreads() {
+        return eventVirtualThreads;
+    }
+
+    /**
+     * Number of retries of push to change that failed, 0 moves failed push to dead letters right away
+     */
+    public int getPushRetries() {
+        return pushRetries;
+    }
+
+    /**
+     * Milliseconds before first retry of failed push, doubled by every next retry
+     */
+    public long getPushRetryDelay() {
+        return pushRetryDelay;
+    }
+
+    /**
+     * Maximum milliseconds between retries of failed push
+     */
+    public long getPushMaxRetryDelay() {
+        return pushMaxRetryDelay;
+    }
+
+    @Override
+    public String toString() {
+        return "PluginGlobalSettings{" +
+                "reviewInfoCacheWeight=" + reviewInfoCacheWeight +
+                ", directoryAggregationThreshold=" + directoryAggregationThreshold +
+                ", parallelThreshold=" + parallelThreshold +
+                ", parallelism=" + parallelism +
+                ", maintainersLookupDepth=" + maintainersLookupDepth +
+                ", warmupThreads=" + warmupThreads +
+                ", eventThreads=" + eventThreads +
+                ", eventQueueCapacity=" + eventQueueCapacity +
+                ", eventQueueOverflow=" + eventQueueOverflow +
+                ", eventQuietWindow=" + eventQuietWindow +
+                ", eventVirtualThreads=" + eventVirtualThreads +
+                ", pushRetries=" + pushRetries +
+                ", pushRetryDelay=" + pushRetryDelay +
+                ", pushMaxRetryDelay=" + pushMaxRetryDelay +
+                '}';
+    }
+
+    public static class GlobalSettingsBuilder {
+        private long reviewInfoCacheWeight = DEFAULT_REVIEW_INFO_CACHE_WEIGHT;
+        private int directoryAggregationThreshold = DEFAULT_DIRECTORY_AGGREGATION_THRESHOLD;
+        private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maintainersLookupDepth = DEFAULT_MAINTAINERS_LOOKUP_DEPTH;
+        private int warmupThreads = DEFAULT_WARMUP_THREADS;
+        private int eventThreads = DEFAULT_EVENT_THREADS;
+        private int eventQueueCapacity = DEFAULT_EVENT_QUEUE_CAPACITY;
+        private OverflowPolicy eventQueueOverflow = DEFAULT_EVENT_QUEUE_OVERFLOW;
+        private long eventQuietWindow = DEFAULT_EVENT_QUIET_WINDOW;
+        private int eventVirtualThreads = DEFAULT_EVENT_VIRTUAL_THREADS;
+        private int pushRetries = DEFAULT_PUSH_RETRIES;
+        private long pushRetryDelay = DEFAULT_PUSH_RETRY_DELAY;
+        private long pushMaxRetryDelay = DEFAULT_PUSH_MAX_RETRY_DELAY;
+
+        public GlobalSettingsBuilder setReviewInfoCacheWeight(final long reviewInfoCacheWeight) {
+            this.reviewInfoCacheWeight = reviewInfoCacheWeight;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setDirectoryAggregationThreshold(final int directoryAggregationThreshold) {
+            this.directoryAggregationThreshold = directoryAggregationThreshold;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setParallelThreshold(final int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setMaintainersLookupDepth(final int maintainersLookupDepth) {
+            this.maintainersLookupDepth = maintainersLookupDepth;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setWarmupThreads(final int warmupThreads) {
+            this.warmupThreads = warmupThreads;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setEventThreads(final int eventThreads) {
+            this.eventThreads = eventThreads;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setEventQueueCapacity(final int eventQueueCapacity) {
+            this.eventQueueCapacity = eventQueueCapacity;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setEventQueueOverflow(final OverflowPolicy eventQueueOverflow) {
+            this.eventQueueOverflow = eventQueueOverflow;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setEventQuietWindow(final long eventQuietWindow) {
+            this.eventQuietWindow = eventQuietWindow;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setEventVirtualThreads(final int eventVirtualThreads) {
+            this.eventVirtualThreads = eventVirtualThreads;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setPushRetries(final int pushRetries) {
+            this.pushRetries = pushRetries;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setPushRetryDelay(final long pushRetryDelay) {
+            this.pushRetryDelay = pushRetryDelay;
+            return this;
+        }
+
+        public GlobalSettingsBuilder setPushMaxRetryDelay(final long pushMaxRetryDelay) {
+            this.pushMaxRetryDelay = pushMaxRetryDelay;
+            return this;
+        }
+
+        public PluginGlobalSettings createGlobalSettings() {
+            return new PluginGlobalSettings(reviewInfoCacheWeight, directoryAggregationThreshold, parallelThreshold,
+                    parallelism, maintainersLookupDepth, warmupThreads, eventThreads, eventQueueCapacity,
+                    eventQueueOverflow, eventQuietWindow, eventVirtualThreads, pushRetries, pushRetryDelay,
+                    pushMaxRetryDelay);
+        }
+    }
+
+    /**
+     * Handling of event that does not fit into full queue
+     */
+    public enum OverflowPolicy {
+        /**
+         * Event is dropped and logged
+         */
+        DISCARD,
+        /**
+         * Event is processed by thread that dispatched it, which slows down dispatching of further events
+         */
+        CALLER_RUNS
+    }
+}
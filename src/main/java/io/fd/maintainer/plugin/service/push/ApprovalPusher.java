@@ -19,21 +19,12 @@ package io.fd.maintainer.plugin.service.push;
 import static java.lang.String.format;
 
 import com.google.gerrit.extensions.api.changes.ReviewInput;
-import com.google.gerrit.extensions.restapi.IdString;
-import com.google.gerrit.extensions.restapi.RestApiException;
-import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.PatchSet;
-import com.google.gerrit.server.change.ChangeResource;
-import com.google.gerrit.server.change.ChangesCollection;
-import com.google.gerrit.server.change.PostReview;
-import com.google.gerrit.server.change.RevisionResource;
-import com.google.gerrit.server.change.Revisions;
-import com.google.gerrit.server.update.UpdateException;
-import com.google.gwtorm.server.OrmException;
 import com.google.inject.Inject;
-import com.google.inject.Provider;
 import com.google.inject.Singleton;
-import java.io.IOException;
+import io.fd.maintainer.plugin.service.ChangeContext;
+import java.util.ArrayList;
+import java.util.List;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,36 +35,26 @@ public class ApprovalPusher {
     private static final Logger LOG = LoggerFactory.getLogger(ApprovalPusher.class);
 
     @Inject
-    private ChangesCollection changes;
-
-    @Inject
-    private Revisions revisions;
-
-    @Inject
-    private Provider<PostReview> reviewProvider;
-
-    public void approvePatchset(@Nonnull final Change change,
-                                @Nonnull final PatchSet patchSet,
-                                @Nonnull final String onBehalfOf) {
-        try {
-            ChangeResource changeResource = changes.parse(change.getId());
-            final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
-
-            final PostReview post = reviewProvider.get();
-
-            ReviewInput review =
-                    ReviewInput.approve()
-                            .message(format(" All relevant component maintainers verified patchset %s",
-                                    patchSet.getPatchSetId()));// review +2
-            review.onBehalfOf = onBehalfOf;
-
-            post.apply(revisionResource, review);
+    private PushScheduler pushScheduler;
+
+    /**
+     * Approves current patchset, and submits change once it is approved if requested.
+     * Returns false if push failed and is retried later.
+     */
+    public boolean approvePatchset(@Nonnull final ChangeContext context, final boolean submit) {
+        final PatchSet patchSet = context.getCurrentPatchSet();
+        final List<PushOperation> operations = new ArrayList<>();
+        operations.add(PushOperation.review(ReviewInput.approve()
+                .message(format(" All relevant component maintainers verified patchset %s",
+                        patchSet.getPatchSetId()))));// review +2
+        if (submit) {
+            operations.add(PushOperation.submit());
+        }
 
-        } catch (OrmException | IOException | RestApiException | UpdateException e) {
-            LOG.error("Unable to approve patchset {}", patchSet.getId(),
-                    e);
-            return;
+        if (!pushScheduler.push(context, operations)) {
+            return false;
         }
         LOG.info("Patchset {} successfully approved", patchSet.getId());
+        return true;
     }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes that failed permanently or exhausted their retries, stored in plugin data directory as one json file
+ * per push, so that they can be inspected and replayed after restart. Ids start with time of last failure,
+ * so that they sort from the oldest.
+ */
+@Singleton
+public class DeadLetterStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeadLetterStore.class);
+    private static final String DIRECTORY = "dead-letters";
+    private static final String EXTENSION = ".json";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private final Path directory;
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    @Inject
+    DeadLetterStore(@PluginData final Path dataDirectory) {
+        directory = dataDirectory.resolve(DIRECTORY);
+    }
+
+    /**
+     * Stores push, returns its id. Failure to store is only logged, and push is lost.
+     */
+    public synchronized Optional<String> add(@Nonnull final PendingPush push) {
+        final String baseId = format("%d-%d-%d", push.getFailedOn(), push.getChangeNumber(),
+                push.getPatchSetNumber());
+        String id = baseId;
+        for (int suffix = 1; Files.exists(file(id)); suffix++) {
+            id = baseId + "-" + suffix;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            final Path temporaryFile = directory.resolve(id + TEMPORARY_EXTENSION);
+            Files.write(temporaryFile, gson.toJson(push).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, file(id), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return Optional.of(id);
+        } catch (IOException e) {
+            LOG.error("Unable to store dead letter {}, {} is lost", id, push, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Push stored by id, empty if there is no such or it is not readable
+     */
+    public synchronized Optional<PendingPush> get(@Nonnull final String id) {
+        if (!isValidId(id)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(gson.fromJson(new String(Files.readAllBytes(file(id)),
+                    StandardCharsets.UTF_8), PendingPush.class));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | JsonParseException e) {
+            LOG.warn("Dead letter {} is not readable", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * All readable stored pushes by their ids, from the oldest
+     */
+    public synchronized Map<String, PendingPush> getAll() {
+        final Map<String, PendingPush> pushes = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return pushes;
+        }
+
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                final String name = file.getFileName().toString();
+                final String id = name.substring(0, name.length() - EXTENSION.length());
+                get(id).ifPresent(push -> pushes.put(id, push));
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to list dead letters in {}", directory, e);
+        }
+        return pushes;
+    }
+
+    /**
+     * Removes stored push, returns false if there was no such
+     */
+    public synchronized boolean remove(@Nonnull final String id) {
+        if (!isValidId(id)) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(file(id));
+        } catch (IOException e) {
+            LOG.warn("Unable to delete dead letter {}", id, e);
+            return false;
+        }
+    }
+
+    // ids come from ssh commands as well, so they must not point outside of directory
+    private static boolean isValidId(final String id) {
+        return id.matches("[0-9-]+");
+    }
+
+    private Path file(final String id) {
+        return directory.resolve(id + EXTENSION);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Operations that remain to be pushed to patchset of change, in order, with number of failed attempts
+ */
+public final class PendingPush {
+
+    private final int changeNumber;
+    private final String branchName;
+    private final int patchSetNumber;
+    private final List<PushOperation> operations;
+    private final int attempts;
+    private final String lastError;
+    private final long failedOn;
+
+    PendingPush(final int changeNumber, @Nonnull final String branchName, final int patchSetNumber,
+                @Nonnull final List<PushOperation> operations) {
+        this(changeNumber, branchName, patchSetNumber, operations, 0, null, 0);
+    }
+
+    private PendingPush(final int changeNumber, final String branchName, final int patchSetNumber,
+                        final List<PushOperation> operations, final int attempts, final String lastError,
+                        final long failedOn) {
+        this.changeNumber = changeNumber;
+        this.branchName = branchName;
+        this.patchSetNumber = patchSetNumber;
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+        this.attempts = attempts;
+        this.lastError = lastError;
+        this.failedOn = failedOn;
+    }
+
+    /**
+     * Push of operations that remained after failed attempt
+     */
+    PendingPush failed(@Nonnull final List<PushOperation> remaining, @Nonnull final Throwable error) {
+        final String errorMessage = error.getCause() == null
+                ? error.toString()
+                : format("%s, caused by %s", error, error.getCause());
+        return new PendingPush(changeNumber, branchName, patchSetNumber, remaining, attempts + 1, errorMessage,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * The same push without any failed attempts
+     */
+    PendingPush restart() {
+        return new PendingPush(changeNumber, branchName, patchSetNumber, operations);
+    }
+
+    public int getChangeNumber() {
+        return changeNumber;
+    }
+
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public int getPatchSetNumber() {
+        return patchSetNumber;
+    }
+
+    public List<PushOperation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Number of failed attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Time of last failed attempt, in milliseconds since epoch
+     */
+    public long getFailedOn() {
+        return failedOn;
+    }
+
+    @Override
+    public String toString() {
+        return format("push of %s to change %d patchset %d", operations, changeNumber, patchSetNumber);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.extensions.api.changes.AddReviewerInput;
+import com.google.gerrit.extensions.api.changes.NotifyHandling;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Single update of change pushed by plugin, kept as plain data so that it can be retried with fresh state
+ * of change and stored as dead letter
+ */
+public final class PushOperation {
+
+    public enum Type {
+        REVIEW, ADD_REVIEWER, SUBMIT
+    }
+
+    private final Type type;
+    private final String message;
+    private final Map<String, Short> labels;
+    private final List<String> reviewers;
+    private final NotifyHandling notify;
+
+    private PushOperation(final Type type, final String message, final Map<String, Short> labels,
+                          final List<String> reviewers, final NotifyHandling notify) {
+        this.type = type;
+        this.message = message;
+        this.labels = labels;
+        this.reviewers = reviewers;
+        this.notify = notify;
+    }
+
+    /**
+     * Review of current patchset, with its message, votes, reviewers and notification
+     */
+    public static PushOperation review(@Nonnull final ReviewInput review) {
+        final List<String> reviewers = new ArrayList<>();
+        if (review.reviewers != null) {
+            review.reviewers.forEach(reviewer -> reviewers.add(reviewer.reviewer));
+        }
+        return new PushOperation(Type.REVIEW, review.message, review.labels == null
+                ? Collections.emptyMap()
+                : new LinkedHashMap<>(review.labels), reviewers, review.notify);
+    }
+
+    public static PushOperation addReviewer(@Nonnull final String reviewer) {
+        return new PushOperation(Type.ADD_REVIEWER, null, Collections.emptyMap(),
+                Collections.singletonList(reviewer), null);
+    }
+
+    public static PushOperation submit() {
+        return new PushOperation(Type.SUBMIT, null, Collections.emptyMap(), Collections.emptyList(), null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Review posted on behalf of plugin user
+     */
+    public ReviewInput toReviewInput(@Nullable final String onBehalfOf) {
+        final ReviewInput review = new ReviewInput().message(message);
+        labels.forEach(review::label);
+        reviewers.forEach(review::reviewer);
+        review.notify = notify == null
+                ? NotifyHandling.ALL
+                : notify;
+        review.onBehalfOf = onBehalfOf;
+        return review;
+    }
+
+    public AddReviewerInput toAddReviewerInput() {
+        final AddReviewerInput input = new AddReviewerInput();
+        input.reviewer = reviewers.get(0);
+        return input;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case REVIEW:
+                return format("review%s with %d reviewers", labels, reviewers.size());
+            case ADD_REVIEWER:
+                return format("reviewer %s", reviewers.get(0));
+            default:
+                return "submit";
+        }
+    }
+}
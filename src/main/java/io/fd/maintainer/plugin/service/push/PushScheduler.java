@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import com.google.gerrit.extensions.api.changes.SubmitInput;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.extensions.restapi.AuthException;
+import com.google.gerrit.extensions.restapi.BadRequestException;
+import com.google.gerrit.extensions.restapi.MergeConflictException;
+import com.google.gerrit.extensions.restapi.MethodNotAllowedException;
+import com.google.gerrit.extensions.restapi.ResourceNotFoundException;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gerrit.extensions.restapi.UnprocessableEntityException;
+import com.google.gerrit.server.change.PostReview;
+import com.google.gerrit.server.change.PostReviewers;
+import com.google.gerrit.server.change.Submit;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.update.UpdateException;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gwtorm.server.OrmException;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.ChangeContext;
+import io.fd.maintainer.plugin.service.ChangeContextFactory;
+import io.fd.maintainer.plugin.service.RequestContexts;
+import io.fd.maintainer.plugin.service.SettingsProvider;
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes operations to current patchset of change in order. When operation fails, it is retried together with
+ * operations after it, with exponential backoff and jitter, on dedicated work queue, so that retries do not hold
+ * threads processing events. Retry loads fresh state of change, and push is dropped if change is closed or
+ * has new patchset. Pushes that fail permanently, exhaust their retries, or are pending when plugin stops,
+ * are stored in {@link DeadLetterStore}. Reviewer that can not be added at all is stored alone, and the rest
+ * of operations is still pushed.
+ * <br>
+ * Retries run as plugin user of branch, as retry queue has no request context of its own.
+ */
+@Singleton
+public class PushScheduler implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PushScheduler.class);
+    private static final String QUEUE_NAME = "MaintainerPluginPushRetries";
+
+    // failures that repeat with the same input, until permissions, configuration or change are fixed
+    private static final List<Class<? extends RestApiException>> PERMANENT_FAILURES = Arrays.asList(
+            AuthException.class, BadRequestException.class, MethodNotAllowedException.class,
+            ResourceNotFoundException.class, UnprocessableEntityException.class, MergeConflictException.class);
+
+    @Inject
+    private WorkQueue workQueue;
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private ChangeContextFactory changeContextFactory;
+
+    @Inject
+    private DeadLetterStore deadLetterStore;
+
+    @Inject
+    private RequestContexts requestContexts;
+
+    @Inject
+    private Provider<PostReview> reviewProvider;
+
+    @Inject
+    private Provider<PostReviewers> reviewersProvider;
+
+    @Inject
+    private Submit submitApi;
+
+    private final Set<PendingPush> scheduled = ConcurrentHashMap.newKeySet();
+
+    private WorkQueue.Executor executor;
+    private int retries;
+    private long retryDelay;
+    private long maxRetryDelay;
+
+    /**
+     * Pushes operations to current patchset of change, returns false if some of them failed
+     * and were scheduled for retry or stored as dead letter
+     */
+    public boolean push(@Nonnull final ChangeContext context, @Nonnull final List<PushOperation> operations) {
+        if (operations.isEmpty()) {
+            return true;
+        }
+        return attempt(new PendingPush(context.getChangeId().get(), context.getBranchName(),
+                context.getCurrentPatchSet().getPatchSetId(), operations), context);
+    }
+
+    public boolean push(@Nonnull final ChangeContext context, @Nonnull final PushOperation... operations) {
+        return push(context, Arrays.asList(operations));
+    }
+
+    /**
+     * Pushes dead letter again on retry queue, with all its retries
+     */
+    public void replay(@Nonnull final PendingPush push) {
+        LOG.info("Replaying {}", push);
+        schedule(push.restart(), 0);
+    }
+
+    private boolean attempt(final PendingPush push, final ChangeContext context) {
+        final List<PushOperation> operations = push.getOperations();
+        boolean pushed = true;
+        for (int i = 0; i < operations.size(); i++) {
+            final PushOperation operation = operations.get(i);
+            try {
+                apply(operation, context);
+            } catch (OrmException | IOException | RestApiException | UpdateException | RuntimeException e) {
+                if (operation.getType() == PushOperation.Type.ADD_REVIEWER && !isRetryable(e)) {
+                    // inactive or unknown account of one maintainer does not block the others
+                    failed(push.failed(Collections.singletonList(operation), e), e);
+                    pushed = false;
+                    continue;
+                }
+                failed(push.failed(new ArrayList<>(operations.subList(i, operations.size())), e), e);
+                return false;
+            }
+        }
+        return pushed;
+    }
+
+    private void apply(final PushOperation operation, final ChangeContext context)
+            throws OrmException, IOException, RestApiException, UpdateException {
+        // plugin user does not need to act on behalf of itself
+        final String pluginUserName = context.getSettings().getPluginUserName();
+        final String onBehalfOf = requestContexts.isCurrentUser(pluginUserName)
+                ? null
+                : pluginUserName;
+        switch (operation.getType()) {
+            case REVIEW:
+                reviewProvider.get().apply(context.getRevisionResource(), operation.toReviewInput(onBehalfOf));
+                break;
+            case ADD_REVIEWER:
+                reviewersProvider.get().apply(context.getChangeResource(), operation.toAddReviewerInput());
+                break;
+            case SUBMIT:
+                final SubmitInput submit = new SubmitInput();
+                submit.onBehalfOf = onBehalfOf;
+                submitApi.apply(context.getRevisionResource(), submit);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported push operation " + operation);
+        }
+    }
+
+    private void failed(final PendingPush push, final Exception e) {
+        if (!isRetryable(e)) {
+            LOG.error("{} failed permanently, storing as dead letter", push, e);
+            deadLetter(push);
+        } else if (push.getAttempts() > retries) {
+            LOG.error("{} failed after {} retries, storing as dead letter", push, retries, e);
+            deadLetter(push);
+        } else {
+            final long delay = backoff(push.getAttempts(), retryDelay, maxRetryDelay, ThreadLocalRandom.current());
+            LOG.warn("{} failed, retry {} of {} in {} ms", push, push.getAttempts(), retries, delay, e);
+            schedule(push, delay);
+        }
+    }
+
+    private synchronized void schedule(final PendingPush push, final long delay) {
+        if (executor == null) {
+            LOG.warn("Retry queue is not running, storing {} as dead letter", push);
+            deadLetter(push);
+            return;
+        }
+        scheduled.add(push);
+        executor.schedule(() -> {
+            if (scheduled.remove(push)) {
+                retry(push);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void retry(final PendingPush push) {
+        try (final ManualRequestContext ignored = requestContexts.openAs(
+                settingsProvider.getBranchSpecificSettings(push.getBranchName()).getPluginUserName());
+             final ChangeContext context = changeContextFactory.create(push.getChangeNumber(),
+                     push.getBranchName())) {
+            if (context.getChange().getStatus().isClosed()) {
+                LOG.info("Dropping {}, change is {}", push, context.getChange().getStatus());
+                return;
+            }
+            final int currentPatchSetNumber = context.getCurrentPatchSet().getPatchSetId();
+            if (currentPatchSetNumber != push.getPatchSetNumber()) {
+                LOG.info("Dropping {}, current patchset is {}", push, currentPatchSetNumber);
+                return;
+            }
+            if (attempt(push, context)) {
+                LOG.info("{} succeeded after {} failed attempts", push, push.getAttempts());
+            }
+        } catch (RuntimeException e) {
+            // plugin user or state of change could not be loaded
+            failed(push.failed(push.getOperations(), e), e);
+        }
+    }
+
+    private void deadLetter(final PendingPush push) {
+        deadLetterStore.add(push).ifPresent(id -> LOG.info("{} stored as dead letter {}", push, id));
+    }
+
+    static boolean isRetryable(final Throwable e) {
+        // state of change is loaded lazily, and its failures are wrapped
+        final Throwable failure = e instanceof IllegalStateException && e.getCause() != null
+                ? e.getCause()
+                : e;
+        return PERMANENT_FAILURES.stream().noneMatch(permanent -> permanent.isInstance(failure));
+    }
+
+    /**
+     * Delay before retry after given number of failed attempts. Base delay doubles with every attempt up to
+     * maximum, actual delay is randomly chosen from upper half of it, so that pushes that failed together
+     * do not retry together.
+     */
+    static long backoff(final int attempts, final long initialDelay, final long maxDelay, final Random random) {
+        final long base = Math.min(maxDelay, initialDelay << Math.min(attempts - 1, 30));
+        final long half = base / 2;
+        return base - half + (long) (random.nextDouble() * (half + 1));
+    }
+
+    @Override
+    public synchronized void start() {
+        final PluginGlobalSettings settings = settingsProvider.getGlobalSettings();
+        retries = settings.getPushRetries();
+        retryDelay = settings.getPushRetryDelay();
+        maxRetryDelay = settings.getPushMaxRetryDelay();
+        LOG.info("Starting push retry queue with {} retries, delay {} ms up to {} ms", retries, retryDelay,
+                maxRetryDelay);
+        executor = workQueue.createQueue(1, QUEUE_NAME);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.unregisterWorkQueue();
+            executor = null;
+        }
+        // not lost with plugin, they can be replayed after restart
+        for (PendingPush push : scheduled) {
+            if (scheduled.remove(push)) {
+                deadLetter(push);
+            }
+        }
+    }
+}
@@ -17,30 +17,22 @@
 package io.fd.maintainer.plugin.service.push;
 
 import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_FOUND;
-import static java.util.stream.Collectors.toMap;
-
+import static io.fd.maintainer.plugin.util.CommonTasks.formatReviewerInfo;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
 import com.google.gerrit.reviewdb.client.Account;
-import com.google.gerrit.reviewdb.client.Change;
-import com.google.gerrit.reviewdb.client.PatchSet;
-import com.google.gerrit.reviewdb.server.ReviewDb;
-import com.google.gerrit.server.change.ChangesCollection;
-import com.google.gerrit.server.change.PostReview;
-import com.google.gerrit.server.change.PostReviewers;
-import com.google.gerrit.server.change.Revisions;
-import com.google.gerrit.server.patch.PatchListCache;
-import com.google.gwtorm.server.OrmException;
-import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
-import com.google.inject.Provider;
 import com.google.inject.Singleton;
-import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.service.ChangeContext;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import io.fd.maintainer.plugin.service.MaintainerAccounts;
 import io.fd.maintainer.plugin.util.CommonTasks;
-import io.fd.maintainer.plugin.util.MaintainersIndex;
+import io.fd.maintainer.plugin.util.PatchListMatch;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
 import io.fd.maintainer.plugin.util.WarningGenerator;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -53,50 +45,61 @@ public class ReviewerPusher implements WarningGenerator, PatchListProcessing, Co
     private static final Logger LOG = LoggerFactory.getLogger(ReviewerPusher.class);
 
     @Inject
-    private ChangesCollection changesCollection;
-
-    @Inject
-    private Provider<PostReviewers> reviewersProvider;
+    private PushScheduler pushScheduler;
 
     @Inject
-    private Provider<PostReview> reviewProvider;
+    private MaintainerAccounts maintainerAccounts;
 
-    @Inject
-    private PatchListCache patchListCache;
 
-    @Inject
-    private Revisions revisions;
+    /**
+     * Adds relevant reviewers and posts ownership report, returns false if push failed and is retried later
+     */
+    public boolean addRelevantReviewers(@Nonnull final PatchListMatch patchListMatch,
+                                        @Nonnull final ChangeContext context) {
 
-    @Inject
-    private SchemaFactory<ReviewDb> schemaFactory;
+        final Set<ComponentReviewInfo> reviewInfoSet = patchListMatch.getReviewInfo();
+        final List<PushOperation> operations = new ArrayList<>();
+        getRelevantReviewers(reviewInfoSet)
+                .forEach(accountId -> operations.add(PushOperation.addReviewer(accountId.toString())));
+        operations.add(PushOperation.review(ReviewInput.noScore().message(formatReviewerInfo(reviewInfoSet))));
 
+        LOG.info("Adding reviewers for change {}", context.getChangeId());
+        return pushScheduler.push(context, operations);
+    }
 
-    public void addRelevantReviewers(@Nonnull final MaintainersIndex maintainersIndex,
-                                     @Nonnull final Change change,
-                                     @Nonnull final PatchSet mostCurrentPatchSet,
-                                     @Nonnull final String onBehalfOf) throws OrmException {
-
-        final Set<ComponentReviewInfo> reviewInfoSet =
-                getRelevantPatchListEntries(getPatchList(patchListCache, change, mostCurrentPatchSet))
-                        .stream()
-                        .map(this::getRelevantChangeName)
-                        .map(maintainersIndex::getReviewInfoForPath)
-                        .collect(Collectors.toSet());
-
-        final ReviewDb reviewDb = schemaFactory.open();
-        final Map<String, Account.Id> accountIndex = reviewDb.accounts().all().toList().stream()
-                .collect(toMap(Account::getFullName, Account::getId));
+    /**
+     * Posts relevant reviewers, ownership report and warnings as single review of current patchset,
+     * so that change is updated and notification is sent just once. Returns false if push failed and is retried
+     * later.
+     */
+    public boolean pushCombinedReview(@Nonnull final PatchListMatch patchListMatch,
+                                   @Nonnull final Set<ComponentChangeWarning> warnings,
+                                   @Nonnull final ChangeContext context) {
+        final Set<ComponentReviewInfo> reviewInfoSet = patchListMatch.getReviewInfo();
+
+        final ReviewInput review = warnings.isEmpty()
+                ? ReviewInput.noScore().message(formatReviewerInfo(reviewInfoSet))
+                : ReviewInput.dislike().message(formatReviewerInfo(reviewInfoSet)
+                        + LINE_SEPARATOR + LINE_SEPARATOR + WarningPusher.formatComments(warnings));// review -1
+        getRelevantReviewers(reviewInfoSet).forEach(accountId -> review.reviewer(accountId.toString()));
+        review.notify = context.getSettings().getReviewNotify();
+
+        LOG.info("Posting combined review for change {}, {} reviewers, {} warnings", context.getChangeId(),
+                review.reviewers == null
+                        ? 0
+                        : review.reviewers.size(), warnings.size());
+        return pushScheduler.push(context, PushOperation.review(review));
+    }
 
-        final Set<Account.Id> reviewersToBeAdded = reviewInfoSet.stream()
+    private Set<Account.Id> getRelevantReviewers(final Set<ComponentReviewInfo> reviewInfoSet) {
+        return reviewInfoSet.stream()
                 .filter(reviewInfo -> reviewInfo.getState() == COMPONENT_FOUND)
                 .map(ComponentReviewInfo::getComponentMaintainers)
                 .flatMap(Collection::stream)
-                .map(Maintainer::getName)
-                .map(accountIndex::get)
+                .distinct()
+                .map(maintainerAccounts::getAccountId)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
                 .collect(Collectors.toSet());
-
-        LOG.info("Adding reviewers for change {}", change.getId());
-        addReviewers(reviewersProvider.get(), reviewersToBeAdded, changesCollection, change);
-        sendReviewersInfo(reviewInfoSet, change, changesCollection, revisions, reviewProvider.get(), onBehalfOf);
     }
 }
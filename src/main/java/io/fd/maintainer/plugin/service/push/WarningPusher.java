@@ -19,23 +19,11 @@ package io.fd.maintainer.plugin.service.push;
 import static java.lang.String.format;
 
 import com.google.gerrit.extensions.api.changes.ReviewInput;
-import com.google.gerrit.extensions.restapi.IdString;
-import com.google.gerrit.extensions.restapi.RestApiException;
-import com.google.gerrit.reviewdb.client.Change;
-import com.google.gerrit.reviewdb.client.PatchSet;
-import com.google.gerrit.server.change.ChangeResource;
-import com.google.gerrit.server.change.ChangesCollection;
-import com.google.gerrit.server.change.PostReview;
-import com.google.gerrit.server.change.RevisionResource;
-import com.google.gerrit.server.change.Revisions;
-import com.google.gerrit.server.update.UpdateException;
-import com.google.gwtorm.server.OrmException;
 import com.google.inject.Inject;
-import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.ChangeContext;
 import io.fd.maintainer.plugin.util.CommonTasks;
 import io.fd.maintainer.plugin.util.WarningGenerator;
-import java.io.IOException;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -48,15 +36,9 @@ public class WarningPusher implements CommonTasks {
     private static final Logger LOG = LoggerFactory.getLogger(WarningPusher.class);
 
     @Inject
-    private ChangesCollection changesCollection;
+    private PushScheduler pushScheduler;
 
-    @Inject
-    private Revisions revisions;
-
-    @Inject
-    private Provider<PostReview> reviewProvider;
-
-    private static String formatComments(final Set<WarningGenerator.ComponentChangeWarning> comments) {
+    static String formatComments(final Set<WarningGenerator.ComponentChangeWarning> comments) {
         return "Following entries are now no longer part of their components. Maintainers file update is recommended."
                 + LINE_SEPARATOR + LINE_SEPARATOR
                 + comments.stream()
@@ -68,28 +50,18 @@ public class WarningPusher implements CommonTasks {
                 .collect(Collectors.joining(LINE_SEPARATOR));
     }
 
-    public void sendWarnings(@Nonnull final Set<ComponentChangeWarning> comments,
-                             @Nonnull final Change change,
-                             @Nonnull final PatchSet patchSet,
-                             @Nonnull final String onBehalfOf) throws OrmException {
+    /**
+     * Posts warnings as review, returns false if push failed and is retried later
+     */
+    public boolean sendWarnings(@Nonnull final Set<ComponentChangeWarning> comments,
+                                @Nonnull final ChangeContext context) {
         if (comments.isEmpty()) {
             LOG.warn("No warnings");
-            return;
+            return true;
         }
 
-        try {
-            ChangeResource changeResource = changesCollection.parse(change.getId());
-            final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
-
-            ReviewInput review = ReviewInput.dislike()
-                    .message(formatComments(comments));// review -1
-            review.onBehalfOf = onBehalfOf;
-
-            reviewProvider.get().apply(revisionResource, review);
-        } catch (IOException | RestApiException | UpdateException e) {
-            throw new IllegalStateException(
-                    format("Unable to add warning comments for change %s / patchset %s", change.getId(),
-                            patchSet.getId()), e);
-        }
+        ReviewInput review = ReviewInput.dislike()
+                .message(formatComments(comments));// review -1
+        return pushScheduler.push(context, PushOperation.review(review));
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.ssh;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.common.data.GlobalCapability;
+import com.google.gerrit.extensions.annotations.RequiresCapability;
+import com.google.gerrit.sshd.CommandMetaData;
+import com.google.gerrit.sshd.SshCommand;
+import com.google.inject.Inject;
+import io.fd.maintainer.plugin.service.push.DeadLetterStore;
+import io.fd.maintainer.plugin.service.push.PendingPush;
+import java.util.Map;
+
+/**
+ * Lists pushes stored as dead letters, with operations that remained and their last error
+ */
+@RequiresCapability(GlobalCapability.ADMINISTRATE_SERVER)
+@CommandMetaData(name = "dead-letters", description = "List pushes that failed and can be replayed")
+public class DeadLettersCommand extends SshCommand {
+
+    @Inject
+    private DeadLetterStore deadLetterStore;
+
+    @Override
+    protected void run() {
+        final Map<String, PendingPush> pushes = deadLetterStore.getAll();
+        for (Map.Entry<String, PendingPush> entry : pushes.entrySet()) {
+            final PendingPush push = entry.getValue();
+            stdout.println(format("%s change %d patchset %d (%s), %d attempts", entry.getKey(),
+                    push.getChangeNumber(), push.getPatchSetNumber(), push.getBranchName(), push.getAttempts()));
+            stdout.println("  operations: " + push.getOperations());
+            stdout.println("  last error: " + push.getLastError());
+        }
+        stdout.println(format("%d dead letters", pushes.size()));
+    }
+}
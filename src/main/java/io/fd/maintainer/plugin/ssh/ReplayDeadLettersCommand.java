@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.ssh;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.common.data.GlobalCapability;
+import com.google.gerrit.extensions.annotations.RequiresCapability;
+import com.google.gerrit.sshd.CommandMetaData;
+import com.google.gerrit.sshd.SshCommand;
+import com.google.inject.Inject;
+import io.fd.maintainer.plugin.service.push.DeadLetterStore;
+import io.fd.maintainer.plugin.service.push.PendingPush;
+import io.fd.maintainer.plugin.service.push.PushScheduler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
+
+/**
+ * Replays pushes stored as dead letters on retry queue, or drops them. Replayed push is removed from dead letters,
+ * and stored again if it fails again.
+ */
+@RequiresCapability(GlobalCapability.ADMINISTRATE_SERVER)
+@CommandMetaData(name = "replay-dead-letters", description = "Replay or drop pushes that failed")
+public class ReplayDeadLettersCommand extends SshCommand {
+
+    @Argument(metaVar = "ID", usage = "ids of dead letters, as listed by dead-letters")
+    private List<String> ids = new ArrayList<>();
+
+    @Option(name = "--all", usage = "all dead letters")
+    private boolean all;
+
+    @Option(name = "--drop", usage = "remove dead letters without replaying them")
+    private boolean drop;
+
+    @Inject
+    private DeadLetterStore deadLetterStore;
+
+    @Inject
+    private PushScheduler pushScheduler;
+
+    @Override
+    protected void run() throws UnloggedFailure {
+        if (all == !ids.isEmpty()) {
+            throw die("Either ids of dead letters or --all is required");
+        }
+
+        final List<String> selectedIds = all
+                ? new ArrayList<>(deadLetterStore.getAll().keySet())
+                : ids;
+        for (String id : selectedIds) {
+            final Optional<PendingPush> push = deadLetterStore.get(id);
+            if (!push.isPresent() || !deadLetterStore.remove(id)) {
+                stderr.println(format("No dead letter %s", id));
+                continue;
+            }
+            if (drop) {
+                stdout.println(format("Dropped %s, %s", id, push.get()));
+            } else {
+                pushScheduler.replay(push.get());
+                stdout.println(format("Replaying %s, %s", id, push.get()));
+            }
+        }
+    }
+}
@@ -25,26 +25,11 @@ import static java.util.stream.Collectors.toMap;
 
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
-import com.google.gerrit.extensions.api.changes.AddReviewerInput;
-import com.google.gerrit.extensions.api.changes.ReviewInput;
-import com.google.gerrit.extensions.restapi.IdString;
-import com.google.gerrit.extensions.restapi.RestApiException;
-import com.google.gerrit.reviewdb.client.Account;
-import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.Patch;
-import com.google.gerrit.server.change.ChangeResource;
-import com.google.gerrit.server.change.ChangesCollection;
-import com.google.gerrit.server.change.PostReview;
-import com.google.gerrit.server.change.PostReviewers;
-import com.google.gerrit.server.change.RevisionResource;
-import com.google.gerrit.server.change.Revisions;
 import com.google.gerrit.server.patch.PatchListEntry;
-import com.google.gerrit.server.update.UpdateException;
-import com.google.gwtorm.server.OrmException;
 import io.fd.maintainer.plugin.parser.ComponentPath;
 import io.fd.maintainer.plugin.parser.Maintainer;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo;
-import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -123,45 +108,10 @@ public interface CommonTasks extends WarningGenerator, PatchListProcessing {
     }
 
     default Map<PatchListEntry, Tuple2<Set<ComponentPath>, Set<ComponentPath>>> renamedEntriesToComponentIndex(
-            final @Nonnull MaintainersIndex maintainersIndex, final List<PatchListEntry> patches) {
-        return patches.stream()
+            final @Nonnull PatchListMatch patchListMatch) {
+        return patchListMatch.getEntries().stream()
                 // only renames
                 .filter(entry -> entry.getChangeType() == Patch.ChangeType.RENAMED)
-                .collect(toMap(entry -> entry, maintainersIndex::getComponentPathsForEntry));
-    }
-
-    default void sendReviewersInfo(@Nonnull final Set<ComponentReviewInfo> reviewInfoSet,
-                                   @Nonnull final Change change,
-                                   @Nonnull final ChangesCollection changesCollection,
-                                   @Nonnull final Revisions revisions,
-                                   @Nonnull final PostReview reviewApi,
-                                   @Nonnull final String onBehalfOf) throws OrmException {
-        try {
-            ChangeResource changeResource = changesCollection.parse(change.getId());
-            final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
-            ReviewInput review = ReviewInput.noScore().message(formatReviewerInfo(reviewInfoSet));
-            review.onBehalfOf = onBehalfOf;
-
-            reviewApi.apply(revisionResource, review);
-        } catch (IOException | RestApiException | UpdateException e) {
-            throw new IllegalStateException(
-                    format("Unable to add reviewers info for patchset %s", change.currentPatchSetId()));
-        }
-    }
-
-    default void addReviewers(final PostReviewers reviewersApi,
-                              final Set<Account.Id> reviewers,
-                              final ChangesCollection changes,
-                              final Change change) {
-        try {
-            ChangeResource changeResource = changes.parse(change.getId());
-            for (Account.Id accountId : reviewers) {
-                AddReviewerInput input = new AddReviewerInput();
-                input.reviewer = accountId.toString();
-                reviewersApi.apply(changeResource, input);
-            }
-        } catch (Exception ex) {
-            throw new IllegalStateException("Couldn't add reviewers to the change", ex);
-        }
+                .collect(toMap(entry -> entry, patchListMatch::getComponentPathsForEntry));
     }
 }
@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.FULL;
+import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.PARTIAL;
+import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.WILDCARD_ONLY;
+import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION;
+
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Matching engine built once from all {@link ComponentPath}s of maintainers file.
+ * Produces same match levels as {@link ComponentPath#matchAgainst(String)}, but visits only patterns that
+ * are relevant for matched path, therefore cost of matching depends on depth of the path, not on number of patterns.
+ * <ul>
+ * <li>Paths without wildcard are stored in trie by their segments, matching file walks down this trie</li>
+ * <li>Paths with wildcard are compiled to single {@link GlobAutomaton} that finds all wildcard paths
+ * matching the file in one pass over its characters</li>
+ * <li>Paths with wildcard that would make automaton too large are matched one by one by their
+ * {@link io.fd.maintainer.plugin.parser.GlobPattern}</li>
+ * </ul>
+ */
+final class ComponentPathTrie {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ComponentPathTrie.class);
+    private static final String SEPARATOR = "/";
+
+    private final SegmentNode segmentRoot;
+    private final GlobAutomaton automaton;
+    private final List<Pattern> fallbackPatterns;
+    private final Map<String, List<Pattern>> wildcardPatternsByPath;
+
+    /**
+     * @param paths paths to be indexed, order of paths is preserved in {@link Pattern#getOrder()}
+     */
+    ComponentPathTrie(@Nonnull final Collection<ComponentPath> paths) {
+        this(paths, GlobAutomaton.MAX_STATES);
+    }
+
+    /**
+     * @param maxStates limit of states of wildcard automaton
+     */
+    ComponentPathTrie(@Nonnull final Collection<ComponentPath> paths, final int maxStates) {
+        segmentRoot = new SegmentNode();
+        wildcardPatternsByPath = new HashMap<>();
+
+        final List<Pattern> wildcardPatterns = new ArrayList<>();
+        int order = 0;
+        for (ComponentPath path : paths) {
+            final Pattern pattern = new Pattern(path, order++);
+
+            if (path.isWildcard()) {
+                wildcardPatterns.add(pattern);
+                wildcardPatternsByPath.computeIfAbsent(path.getPath(), key -> new ArrayList<>()).add(pattern);
+            } else {
+                segmentRoot.insert(path.getPath().split(SEPARATOR)).literalPatterns.add(pattern);
+            }
+        }
+        fallbackPatterns = new ArrayList<>();
+        automaton = buildAutomaton(wildcardPatterns, maxStates, fallbackPatterns);
+    }
+
+    // patterns with most repeated tokens are left out of automaton until it fits the limit
+    private static GlobAutomaton buildAutomaton(final List<Pattern> patterns, final int maxStates,
+                                                final List<Pattern> fallbackPatterns) {
+        final List<Pattern> automatonPatterns = new ArrayList<>(patterns);
+        while (true) {
+            try {
+                return new GlobAutomaton(automatonPatterns, maxStates);
+            } catch (GlobAutomaton.TooManyStatesException e) {
+                final Pattern mostComplex = automatonPatterns.stream()
+                        .max(Comparator.comparingLong(ComponentPathTrie::repeatedTokens))
+                        .orElseThrow(() -> e);
+                LOG.warn("Wildcard path {} is too complex to be matched together with other wildcard paths, "
+                        + "matching it separately", mostComplex.getComponentPath().getPath());
+                automatonPatterns.remove(mostComplex);
+                fallbackPatterns.add(mostComplex);
+            }
+        }
+    }
+
+    private static long repeatedTokens(final Pattern pattern) {
+        return pattern.getComponentPath().getGlob().getTokens().stream()
+                .filter(token -> token.getType().isRepeated())
+                .count();
+    }
+
+    // wildcard patterns left out of automaton that match the path
+    private List<Pattern> fallbackMatches(final String path) {
+        if (fallbackPatterns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return fallbackPatterns.stream()
+                .filter(pattern -> pattern.getComponentPath().getGlob().matches(path))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reports every indexed pattern that matches provided path together with its match level.
+     * Patterns that do not match are not reported.
+     */
+    void match(final String path, @Nonnull final MatchConsumer consumer) {
+        if (path == null) {
+            return;
+        }
+
+        // wildcard patterns equal to the path are full match, everything else is resolved by prefix
+        final List<Pattern> fullWildcardMatches =
+                wildcardPatternsByPath.getOrDefault(path, Collections.emptyList());
+        fullWildcardMatches.forEach(pattern -> consumer.accept(pattern, FULL));
+
+        matchLiterals(path, consumer);
+        reportWildcards(automaton.accepted(automaton.run(automaton.start(), path, 0)), fullWildcardMatches,
+                consumer);
+        reportWildcards(fallbackMatches(path), fullWildcardMatches, consumer);
+    }
+
+    private void matchLiterals(final String path, final MatchConsumer consumer) {
+        // same splitting as ComponentPath uses, so that trailing slashes are handled identically
+        final String[] segments = path.split(SEPARATOR);
+
+        SegmentNode node = segmentRoot;
+        for (int depth = 0; node != null; depth++) {
+            // path can be at most one level below the pattern
+            if (segments.length - depth <= 1) {
+                for (Pattern pattern : node.literalPatterns) {
+                    consumer.accept(pattern, pattern.getComponentPath().getPath().equals(path)
+                            ? FULL
+                            : PARTIAL);
+                }
+            }
+
+            node = depth < segments.length
+                    ? node.children.get(segments[depth])
+                    : null;
+        }
+    }
+
+    private static void reportWildcards(final List<Pattern> patterns, final List<Pattern> fullWildcardMatches,
+                                        final MatchConsumer consumer) {
+        for (Pattern pattern : patterns) {
+            if (!fullWildcardMatches.contains(pattern)) {
+                consumer.accept(pattern, wildcardMatchLevel(pattern));
+            }
+        }
+    }
+
+    private static MatchLevel wildcardMatchLevel(final Pattern pattern) {
+        return pattern.getComponentPath().getExtension().isEmpty()
+                ? WILDCARD_ONLY
+                : WILDCARD_WITH_EXTENSION;
+    }
+
+    /**
+     * Creates walker for matching of multiple paths
+     */
+    Walker walker() {
+        return new Walker();
+    }
+
+    /**
+     * Resolves part of matching that is shared by all files directly within provided directory
+     *
+     * @param directory path of directory ending with separator, or empty string for root
+     */
+    DirectoryMatch matchDirectory(@Nonnull final String directory) {
+        SegmentNode node = segmentRoot;
+        for (int start = 0, end = directory.indexOf(SEPARATOR); node != null && end != -1;
+             start = end + 1, end = directory.indexOf(SEPARATOR, start)) {
+            node = node.children.get(directory.substring(start, end));
+        }
+        return new DirectoryMatch(directory, node, automaton.run(automaton.start(), directory, 0));
+    }
+
+    /**
+     * Receives matches produced by {@link ComponentPathTrie}
+     */
+    @FunctionalInterface
+    interface MatchConsumer {
+        void accept(@Nonnull Pattern pattern, @Nonnull MatchLevel matchLevel);
+    }
+
+    /**
+     * Indexed component path with pre-computed data used for ranking
+     */
+    static final class Pattern {
+        private final ComponentPath componentPath;
+        private final int order;
+        private final int length;
+
+        private Pattern(final ComponentPath componentPath, final int order) {
+            this.componentPath = componentPath;
+            this.order = order;
+            this.length = StringUtils.countMatches(componentPath.getPath(), SEPARATOR);
+        }
+
+        ComponentPath getComponentPath() {
+            return componentPath;
+        }
+
+        /**
+         * Position of path in collection that trie was built from
+         */
+        int getOrder() {
+            return order;
+        }
+
+        /**
+         * Number of directory separators in path, longer means more specific
+         */
+        int getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * Selects most specific match, by match level, then by path length. Ties are resolved by order of paths
+     * that trie was built from.
+     */
+    static final class MostSpecificMatch implements MatchConsumer {
+        private Pattern pattern;
+        private MatchLevel matchLevel;
+
+        MostSpecificMatch() {
+        }
+
+        /**
+         * Continues selection from state of provided match
+         */
+        MostSpecificMatch(@Nonnull final MostSpecificMatch base) {
+            this.pattern = base.pattern;
+            this.matchLevel = base.matchLevel;
+        }
+
+        @Override
+        public void accept(@Nonnull final Pattern pattern, @Nonnull final MatchLevel matchLevel) {
+            if (this.pattern == null || isMoreSpecific(pattern, matchLevel)) {
+                this.pattern = pattern;
+                this.matchLevel = matchLevel;
+            }
+        }
+
+        private boolean isMoreSpecific(final Pattern pattern, final MatchLevel matchLevel) {
+            if (matchLevel.getValue() != this.matchLevel.getValue()) {
+                return matchLevel.getValue() > this.matchLevel.getValue();
+            }
+            if (pattern.getLength() != this.pattern.getLength()) {
+                return pattern.getLength() > this.pattern.getLength();
+            }
+            return pattern.getOrder() < this.pattern.getOrder();
+        }
+
+        boolean isPresent() {
+            return pattern != null;
+        }
+
+        ComponentPath getComponentPath() {
+            return pattern.getComponentPath();
+        }
+
+        MatchLevel getMatchLevel() {
+            return matchLevel;
+        }
+    }
+
+    /**
+     * Selects all matches that are most specific, by match level, then by path length.
+     */
+    static final class MostSpecificMatches implements MatchConsumer {
+        private Set<ComponentPath> componentPaths;
+        // set is shared with match this one was created from, and must be copied before modification
+        private boolean shared;
+        private MatchLevel matchLevel;
+        private int length;
+
+        MostSpecificMatches() {
+            componentPaths = new HashSet<>();
+        }
+
+        /**
+         * Continues selection from state of provided matches, which must not be modified afterwards
+         */
+        MostSpecificMatches(@Nonnull final MostSpecificMatches base) {
+            this.componentPaths = base.componentPaths;
+            this.shared = true;
+            this.matchLevel = base.matchLevel;
+            this.length = base.length;
+        }
+
+        @Override
+        public void accept(@Nonnull final Pattern pattern, @Nonnull final MatchLevel matchLevel) {
+            if (componentPaths.isEmpty() || matchLevel.getValue() > this.matchLevel.getValue()
+                    || (matchLevel == this.matchLevel && pattern.getLength() > length)) {
+                if (shared) {
+                    componentPaths = new HashSet<>();
+                    shared = false;
+                } else {
+                    componentPaths.clear();
+                }
+                this.matchLevel = matchLevel;
+                this.length = pattern.getLength();
+            }
+
+            if (matchLevel == this.matchLevel && pattern.getLength() == length
+                    && !componentPaths.contains(pattern.getComponentPath())) {
+                if (shared) {
+                    componentPaths = new HashSet<>(componentPaths);
+                    shared = false;
+                }
+                componentPaths.add(pattern.getComponentPath());
+            }
+        }
+
+        Set<ComponentPath> getComponentPaths() {
+            return componentPaths;
+        }
+    }
+
+    /**
+     * Matches multiple paths one after another, sharing work on directories that consecutive paths have in common.
+     * Paths should be sorted, so that files of the same directory follow each other. Not thread safe.
+     */
+    final class Walker {
+        // state after each directory of previously matched path, starting with root
+        private final List<DirectoryState> directories = new ArrayList<>();
+        private String previousPath = "";
+
+        private Walker() {
+            directories.add(new DirectoryState(0, segmentRoot, automaton.start()));
+        }
+
+        /**
+         * Same as {@link ComponentPathTrie#match(String, MatchConsumer)}
+         */
+        void match(final String path, @Nonnull final MatchConsumer consumer) {
+            if (path == null) {
+                return;
+            }
+
+            final int nameStart = path.lastIndexOf(SEPARATOR) + 1;
+            if (nameStart == path.length()) {
+                // paths that end with separator are subject to splitting rules of trailing separators
+                ComponentPathTrie.this.match(path, consumer);
+                return;
+            }
+
+            final DirectoryState directory = enterDirectory(path, nameStart);
+
+            final List<Pattern> fullWildcardMatches =
+                    wildcardPatternsByPath.getOrDefault(path, Collections.emptyList());
+            fullWildcardMatches.forEach(pattern -> consumer.accept(pattern, FULL));
+
+            // path is one segment below its directory, therefore it can match only directory or its child
+            if (directory.node != null) {
+                directory.node.literalPatterns.forEach(pattern -> consumer.accept(pattern, PARTIAL));
+
+                final SegmentNode file = directory.node.children.get(path.substring(nameStart));
+                if (file != null) {
+                    for (Pattern pattern : file.literalPatterns) {
+                        consumer.accept(pattern, pattern.getComponentPath().getPath().equals(path)
+                                ? FULL
+                                : PARTIAL);
+                    }
+                }
+            }
+
+            reportWildcards(automaton.accepted(automaton.run(directory.state, path, nameStart)),
+                    fullWildcardMatches, consumer);
+            reportWildcards(fallbackMatches(path), fullWildcardMatches, consumer);
+        }
+
+        // reuses directories shared with previous path, walks the rest
+        private DirectoryState enterDirectory(final String path, final int nameStart) {
+            final int commonLength = StringUtils.indexOfDifference(previousPath, path);
+            final int sharedLength = -1 == commonLength
+                    ? path.length()
+                    : commonLength;
+            while (directories.get(directories.size() - 1).end > Math.min(sharedLength, nameStart)) {
+                directories.remove(directories.size() - 1);
+            }
+
+            DirectoryState directory = directories.get(directories.size() - 1);
+            for (int end = path.indexOf(SEPARATOR, directory.end); end != -1 && end < nameStart;
+                 end = path.indexOf(SEPARATOR, directory.end)) {
+                final SegmentNode node = directory.node == null
+                        ? null
+                        : directory.node.children.get(path.substring(directory.end, end));
+
+                int state = directory.state;
+                for (int i = directory.end; i <= end; i++) {
+                    state = automaton.next(state, path.charAt(i));
+                }
+
+                directory = new DirectoryState(end + 1, node, state);
+                directories.add(directory);
+            }
+            previousPath = path;
+            return directory;
+        }
+    }
+
+    /**
+     * Matching of files within single directory. Matches that do not depend on name of the file are resolved once
+     * for the whole directory by {@link DirectoryMatch#matchDirectory(MatchConsumer)}, rest is resolved per file
+     * by {@link DirectoryMatch#matchFile(String, MatchConsumer)}. Both together select the same most specific
+     * matches as {@link ComponentPathTrie#match(String, MatchConsumer)}, although wildcard patterns that are full
+     * match of the file are reported also with their wildcard match level.
+     */
+    final class DirectoryMatch {
+        private final String directory;
+        // null if there are no non-wildcard paths within this directory
+        private final SegmentNode node;
+        private final int state;
+
+        private DirectoryMatch(final String directory, final SegmentNode node, final int state) {
+            this.directory = directory;
+            this.node = node;
+            this.state = state;
+        }
+
+        /**
+         * Reports matches shared by all files within directory
+         */
+        void matchDirectory(@Nonnull final MatchConsumer consumer) {
+            if (node != null) {
+                node.literalPatterns.forEach(pattern -> consumer.accept(pattern, PARTIAL));
+            }
+            automaton.universal(state).forEach(pattern -> consumer.accept(pattern, wildcardMatchLevel(pattern)));
+        }
+
+        /**
+         * Reports matches specific for provided file
+         *
+         * @param path file directly within this directory
+         */
+        void matchFile(@Nonnull final String path, @Nonnull final MatchConsumer consumer) {
+            final int nameStart = directory.length();
+            checkArgument(path.startsWith(directory) && path.length() > nameStart
+                    && path.indexOf(SEPARATOR, nameStart) == -1, "%s is not a file within %s", path, directory);
+
+            final List<Pattern> fullWildcardMatches =
+                    wildcardPatternsByPath.getOrDefault(path, Collections.emptyList());
+            fullWildcardMatches.forEach(pattern -> consumer.accept(pattern, FULL));
+
+            if (node != null) {
+                final SegmentNode file = node.children.get(path.substring(nameStart));
+                if (file != null) {
+                    for (Pattern pattern : file.literalPatterns) {
+                        consumer.accept(pattern, pattern.getComponentPath().getPath().equals(path)
+                                ? FULL
+                                : PARTIAL);
+                    }
+                }
+            }
+
+            reportWildcards(automaton.accepted(automaton.run(state, path, nameStart)), fullWildcardMatches,
+                    consumer);
+            reportWildcards(fallbackMatches(path), fullWildcardMatches, consumer);
+        }
+    }
+
+    private static final class DirectoryState {
+        // index after separator that ends this directory
+        private final int end;
+        // null if there are no non-wildcard paths within this directory
+        private final SegmentNode node;
+        // state of wildcard automaton after this directory
+        private final int state;
+
+        private DirectoryState(final int end, final SegmentNode node, final int state) {
+            this.end = end;
+            this.node = node;
+            this.state = state;
+        }
+    }
+
+    private static final class SegmentNode {
+        private final Map<String, SegmentNode> children = new HashMap<>();
+        private final List<Pattern> literalPatterns = new ArrayList<>();
+
+        private SegmentNode insert(final String[] segments) {
+            SegmentNode node = this;
+            for (String segment : segments) {
+                node = node.children.computeIfAbsent(segment, key -> new SegmentNode());
+            }
+            return node;
+        }
+    }
+}
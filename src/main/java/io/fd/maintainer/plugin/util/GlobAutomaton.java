@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import io.fd.maintainer.plugin.parser.GlobPattern.Token;
+import io.fd.maintainer.plugin.parser.GlobPattern.TokenType;
+import io.fd.maintainer.plugin.util.ComponentPathTrie.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+
+/**
+ * Deterministic automaton built from all wildcard paths at once, so that path is classified by single pass
+ * over its characters, regardless of number of wildcard paths. Accepting states are tagged by patterns
+ * they accept, patterns carry their component path and specificity.
+ * <br>
+ * Characters are grouped to classes that are handled equally by all patterns, transitions are kept
+ * per class. Automaton is immutable once built.
+ */
+final class GlobAutomaton {
+
+    /**
+     * State without any further matches
+     */
+    static final int DEAD = -1;
+
+    static final int MAX_STATES = 1 << 16;
+    private static final int ASCII = 128;
+    private static final char SEPARATOR = '/';
+
+    // first character of each character class, sorted
+    private final int[] classStarts;
+    private final int[] asciiClasses;
+    private final int[] transitions;
+    private final List<List<Pattern>> acceptedPatterns;
+    private final List<List<Pattern>> universalPatterns;
+
+    GlobAutomaton(@Nonnull final List<Pattern> patterns) {
+        this(patterns, MAX_STATES);
+    }
+
+    /**
+     * @throws TooManyStatesException if patterns together need more than provided number of states
+     */
+    GlobAutomaton(@Nonnull final List<Pattern> patterns, final int maxStates) {
+        final Positions positions = new Positions(patterns);
+
+        classStarts = classStarts(positions.tokens);
+        asciiClasses = new int[ASCII];
+        for (char character = 0; character < ASCII; character++) {
+            asciiClasses[character] = searchClass(character);
+        }
+
+        // subset construction, every state is set of positions within patterns
+        final Map<BitSet, Integer> stateIds = new HashMap<>();
+        final List<BitSet> states = new ArrayList<>();
+        final List<int[]> stateTransitions = new ArrayList<>();
+
+        final BitSet start = new BitSet();
+        for (int offset : positions.offsets) {
+            start.set(offset);
+        }
+        positions.close(start);
+        if (!start.isEmpty()) {
+            stateIds.put(start, 0);
+            states.add(start);
+        }
+
+        for (int state = 0; state < states.size(); state++) {
+            final int[] row = new int[classStarts.length];
+            for (int characterClass = 0; characterClass < classStarts.length; characterClass++) {
+                final BitSet next = positions.next(states.get(state), (char) classStarts[characterClass]);
+                if (next.isEmpty()) {
+                    row[characterClass] = DEAD;
+                    continue;
+                }
+
+                Integer nextId = stateIds.get(next);
+                if (nextId == null) {
+                    nextId = states.size();
+                    if (nextId >= maxStates) {
+                        throw new TooManyStatesException(maxStates);
+                    }
+                    stateIds.put(next, nextId);
+                    states.add(next);
+                }
+                row[characterClass] = nextId;
+            }
+            stateTransitions.add(row);
+        }
+
+        transitions = new int[states.size() * classStarts.length];
+        acceptedPatterns = new ArrayList<>(states.size());
+        universalPatterns = new ArrayList<>(states.size());
+        for (int state = 0; state < states.size(); state++) {
+            System.arraycopy(stateTransitions.get(state), 0, transitions, state * classStarts.length,
+                    classStarts.length);
+            acceptedPatterns.add(positions.patterns(states.get(state), positions.accepting));
+            universalPatterns.add(positions.patterns(states.get(state), positions.universal));
+        }
+    }
+
+    // boundaries of characters that any token handles specifically, separator is always specific
+    private static int[] classStarts(final List<Token> tokens) {
+        final TreeSet<Integer> starts = new TreeSet<>(Arrays.asList(0, (int) SEPARATOR, SEPARATOR + 1));
+        for (Token token : tokens) {
+            if (token == null) {
+                continue;
+            }
+            final char[] ranges = token.getRanges();
+            for (int i = 0; i < ranges.length; i += 2) {
+                starts.add((int) ranges[i]);
+                if (ranges[i + 1] < Character.MAX_VALUE) {
+                    starts.add(ranges[i + 1] + 1);
+                }
+            }
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int searchClass(final char character) {
+        final int index = Arrays.binarySearch(classStarts, character);
+        return index >= 0
+                ? index
+                : -index - 2;
+    }
+
+    /**
+     * Initial state, {@link #DEAD} if there are no patterns
+     */
+    int start() {
+        return acceptedPatterns.isEmpty()
+                ? DEAD
+                : 0;
+    }
+
+    int next(final int state, final char character) {
+        if (state == DEAD) {
+            return DEAD;
+        }
+        final int characterClass = character < ASCII
+                ? asciiClasses[character]
+                : searchClass(character);
+        return transitions[state * classStarts.length + characterClass];
+    }
+
+    /**
+     * Runs automaton over part of the path
+     */
+    int run(final int state, final String path, final int start) {
+        int current = state;
+        for (int i = start; i < path.length() && current != DEAD; i++) {
+            current = next(current, path.charAt(i));
+        }
+        return current;
+    }
+
+    /**
+     * Patterns that match path which ended in given state
+     */
+    List<Pattern> accepted(final int state) {
+        return state == DEAD
+                ? Collections.emptyList()
+                : acceptedPatterns.get(state);
+    }
+
+    /**
+     * Patterns that match path which ended in given state, extended by any name without separator
+     */
+    List<Pattern> universal(final int state) {
+        return state == DEAD
+                ? Collections.emptyList()
+                : universalPatterns.get(state);
+    }
+
+    int size() {
+        return acceptedPatterns.size();
+    }
+
+    /**
+     * Wildcard paths are too complex to be matched together
+     */
+    static final class TooManyStatesException extends IllegalStateException {
+        private TooManyStatesException(final int maxStates) {
+            super(String.format("Wildcard paths are too complex, more than %s states needed", maxStates));
+        }
+    }
+
+    // positions within all patterns, including position after last token of each pattern
+    private static final class Positions {
+        private final List<Pattern> owners = new ArrayList<>();
+        // null for position after last token
+        private final List<Token> tokens = new ArrayList<>();
+        // position after token is consumed
+        private final List<Integer> following = new ArrayList<>();
+        // position after token consumed character and can consume more
+        private final List<Integer> loops = new ArrayList<>();
+        private final int[] offsets;
+        private final BitSet accepting = new BitSet();
+        // positions from which rest of pattern accepts any name
+        private final BitSet universal = new BitSet();
+        // positions of tokens that already consumed some characters, and can not be skipped anymore
+        private final BitSet consuming = new BitSet();
+
+        private Positions(final List<Pattern> patterns) {
+            offsets = new int[patterns.size()];
+            for (int i = 0; i < patterns.size(); i++) {
+                final Pattern pattern = patterns.get(i);
+                final List<Token> patternTokens = pattern.getComponentPath().getGlob().getTokens();
+                final int offset = tokens.size();
+                offsets[i] = offset;
+
+                for (int token = 0; token <= patternTokens.size(); token++) {
+                    add(pattern, token < patternTokens.size()
+                            ? patternTokens.get(token)
+                            : null, offset + token + 1, offset + token);
+                }
+                accepting.set(offset + patternTokens.size());
+
+                // any directories can be skipped only before they consumed anything, so they loop elsewhere
+                for (int token = 0; token < patternTokens.size(); token++) {
+                    if (patternTokens.get(token).getType() == TokenType.ANY_DIRECTORIES) {
+                        final int loop = tokens.size();
+                        add(pattern, patternTokens.get(token), offset + token + 1, loop);
+                        loops.set(offset + token, loop);
+                        consuming.set(loop);
+                    }
+                }
+
+                for (int token = patternTokens.size() - 1; token >= 0; token--) {
+                    final TokenType type = patternTokens.get(token).getType();
+                    if (type != TokenType.ANY_NAME && type != TokenType.ANY_PATH) {
+                        break;
+                    }
+                    universal.set(offset + token);
+                }
+            }
+        }
+
+        private void add(final Pattern owner, final Token token, final int following, final int loop) {
+            owners.add(owner);
+            tokens.add(token);
+            this.following.add(following);
+            loops.add(loop);
+        }
+
+        // repeated tokens can match nothing, so following position is active as well
+        private void close(final BitSet positions) {
+            for (int position = positions.nextSetBit(0); position >= 0;
+                 position = positions.nextSetBit(position + 1)) {
+                final Token token = tokens.get(position);
+                if (token != null && token.getType().isRepeated() && !consuming.get(position)) {
+                    positions.set(following.get(position));
+                }
+            }
+        }
+
+        private BitSet next(final BitSet positions, final char character) {
+            final BitSet next = new BitSet();
+            for (int position = positions.nextSetBit(0); position >= 0;
+                 position = positions.nextSetBit(position + 1)) {
+                final Token token = tokens.get(position);
+                if (token == null || !token.matches(character)) {
+                    continue;
+                }
+
+                if (token.getType().isRepeated()) {
+                    next.set(loops.get(position));
+                    if (token.getType() == TokenType.ANY_DIRECTORIES && character == SEPARATOR) {
+                        next.set(following.get(position));
+                    }
+                } else {
+                    next.set(following.get(position));
+                }
+            }
+            close(next);
+            return next;
+        }
+
+        private List<Pattern> patterns(final BitSet positions, final BitSet filter) {
+            final BitSet filtered = (BitSet) positions.clone();
+            filtered.and(filter);
+            if (filtered.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            final Set<Pattern> patterns = new LinkedHashSet<>();
+            filtered.stream().forEach(position -> patterns.add(owners.get(position)));
+            return Collections.unmodifiableList(new ArrayList<>(patterns));
+        }
+    }
+}
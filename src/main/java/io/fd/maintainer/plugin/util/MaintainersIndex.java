@@ -16,64 +16,313 @@
 
 package io.fd.maintainer.plugin.util;
 
-import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.MAX;
+import static com.google.common.base.Preconditions.checkState;
 import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.NONE;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Multiset;
+import com.google.gerrit.server.patch.PatchList;
 import com.google.gerrit.server.patch.PatchListEntry;
 import io.fd.maintainer.plugin.parser.ComponentInfo;
 import io.fd.maintainer.plugin.parser.ComponentPath;
-import io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel;
 import io.fd.maintainer.plugin.parser.Maintainer;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoBuilder;
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import io.fd.maintainer.plugin.util.ComponentPathTrie.MatchConsumer;
+import io.fd.maintainer.plugin.util.ComponentPathTrie.MostSpecificMatch;
+import io.fd.maintainer.plugin.util.ComponentPathTrie.MostSpecificMatches;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
-import org.apache.commons.lang3.StringUtils;
+import javax.annotation.Nullable;
 import org.parboiled.common.Tuple2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public final class MaintainersIndex implements ClosestMatch {
+/**
+ * Index of maintainers file, immutable once built, so that it can be shared by concurrent events
+ */
+public final class MaintainersIndex implements ClosestMatch, PatchListProcessing {
 
     private static final Logger LOG = LoggerFactory.getLogger(MaintainersIndex.class);
+    // smaller ranges do not pay off the cost of forking
+    private static final int MIN_PARALLEL_RANGE = 64;
 
-    private Map<ComponentPath, Set<Maintainer>> pathToMaintainersIndex;
-    private Map<String, String> pathToComponentIndex;
-    private Multimap<String, String> maintainerNameToComponentIndex;
-    private Map<String, Boolean> reviewComponentIndex;
+    private final List<ComponentInfo> maintainers;
+    private final Map<ComponentPath, Set<Maintainer>> pathToMaintainersIndex;
+    // paths in order they were indexed by trie
+    private final List<ComponentPath> indexedPaths;
+    private final Map<String, String> pathToComponentIndex;
+    private final Multimap<String, String> maintainerNameToComponentIndex;
+    private final Map<String, Boolean> reviewComponentIndex;
+    // components by their dense ids, in order of maintainers file
+    private final List<String> componentTitles;
+    private final Map<String, Integer> componentIdIndex;
+    private final BitSet reviewComponentIds;
+    private final Map<String, BitSet> maintainerEmailToComponentIdsIndex;
+    private final ComponentPathTrie pathTrie;
+    private final Cache<String, ResolvedPath> reviewInfoCache;
+    private final int directoryAggregationThreshold;
+    private final int parallelThreshold;
+    private final ForkJoinPool matchingPool;
 
     public MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers) {
-        pathToMaintainersIndex = maintainers.stream()
-                .flatMap(maintainersInfo -> maintainersInfo.getPaths().stream()
-                        .map(componentPath -> new Tuple2<>(componentPath, maintainersInfo.getMaintainers())))
-                .collect(Collectors.toMap(tuple -> tuple.a, tuple -> tuple.b));
+        this(maintainers, new PluginGlobalSettings.GlobalSettingsBuilder().createGlobalSettings(), null);
+    }
+
+    /**
+     * @param settings     provides size of resolved paths memo and thresholds for directory aggregated and parallel
+     *                     resolution. Memo lives with this index, so it gets discarded together with index
+     * @param matchingPool pool for parallel resolution of very large patchsets, if null patchsets are always
+     *                     resolved on calling thread
+     */
+    public MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers,
+                            @Nonnull final PluginGlobalSettings settings,
+                            @Nullable final ForkJoinPool matchingPool) {
+        this(maintainers, settings, matchingPool, null);
+    }
+
+    private MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers,
+                             @Nonnull final PluginGlobalSettings settings,
+                             @Nullable final ForkJoinPool matchingPool,
+                             @Nullable final MaintainersIndex previous) {
+        this.maintainers = Collections.unmodifiableList(new ArrayList<>(maintainers));
+        reviewInfoCache = CacheBuilder.newBuilder()
+                .maximumWeight(settings.getReviewInfoCacheWeight())
+                .weigher((String path, ResolvedPath resolvedPath) -> resolvedPath.weight())
+                .recordStats()
+                .build();
+        directoryAggregationThreshold = settings.getDirectoryAggregationThreshold();
+        parallelThreshold = settings.getParallelThreshold();
+        this.matchingPool = matchingPool;
+        if (previous == null) {
+            pathToMaintainersIndex = maintainers.stream()
+                    .flatMap(maintainersInfo -> maintainersInfo.getPaths().stream()
+                            .map(componentPath -> new Tuple2<>(componentPath, maintainersInfo.getMaintainers())))
+                    .collect(Collectors.toMap(tuple -> tuple.a, tuple -> tuple.b));
+
+            pathToComponentIndex = new HashMap<>();
+            maintainers.forEach(maintainersInfo -> maintainersInfo.getPaths()
+                    .forEach(
+                            componentPath ->
+                                    pathToComponentIndex.put(componentPath.getPath(), maintainersInfo.getTitle())
+                    ));
+            maintainerNameToComponentIndex = LinkedListMultimap.create();
+            maintainers.forEach(maintainersInfo -> maintainersInfo.getMaintainers().forEach(maintainer ->
+                    maintainerNameToComponentIndex.put(maintainer.getName(), maintainersInfo.getTitle())));
+
+            reviewComponentIndex = maintainers.stream()
+                    .collect(Collectors.toMap(ComponentInfo::getTitle,
+                            component -> !component.getMaintainers().isEmpty()));
+            componentTitles = new ArrayList<>(maintainers.size());
+            componentIdIndex = new HashMap<>();
+            reviewComponentIds = new BitSet(maintainers.size());
+            maintainerEmailToComponentIdsIndex = new HashMap<>();
+            indexComponentIds();
+            indexedPaths = new ArrayList<>(pathToMaintainersIndex.keySet());
+            pathTrie = new ComponentPathTrie(indexedPaths);
+            return;
+        }
 
-        pathToComponentIndex = new HashMap<>();
-        maintainers.forEach(maintainersInfo -> maintainersInfo.getPaths()
-                .forEach(
-                        componentPath ->
-                                pathToComponentIndex.put(componentPath.getPath(), maintainersInfo.getTitle())
-                ));
-        maintainerNameToComponentIndex = LinkedListMultimap.create();
-        maintainers.forEach(maintainersInfo -> maintainersInfo.getMaintainers().forEach(maintainer ->
-                maintainerNameToComponentIndex.put(maintainer.getName(), maintainersInfo.getTitle())));
+        // only entries of changed components are patched, entries of unchanged ones are shared with previous index
+        final Set<ComponentInfo> removed = identitySet(previous.maintainers);
+        final Set<ComponentInfo> added = identitySet(this.maintainers);
+        removed.removeAll(added);
+        previous.maintainers.forEach(added::remove);
 
-        reviewComponentIndex = maintainers.stream()
-                .collect(Collectors.toMap(ComponentInfo::getTitle, component -> !component.getMaintainers().isEmpty()));
+        pathToMaintainersIndex = new HashMap<>(previous.pathToMaintainersIndex);
+        pathToComponentIndex = new HashMap<>(previous.pathToComponentIndex);
+        maintainerNameToComponentIndex = LinkedListMultimap.create(previous.maintainerNameToComponentIndex);
+        reviewComponentIndex = new HashMap<>(previous.reviewComponentIndex);
+        for (ComponentInfo component : removed) {
+            component.getPaths().forEach(path -> {
+                pathToMaintainersIndex.remove(path);
+                pathToComponentIndex.remove(path.getPath());
+            });
+            component.getMaintainers().forEach(maintainer ->
+                    maintainerNameToComponentIndex.remove(maintainer.getName(), component.getTitle()));
+            reviewComponentIndex.remove(component.getTitle());
+        }
+        for (ComponentInfo component : added) {
+            component.getPaths().forEach(path -> {
+                checkState(pathToMaintainersIndex.put(path, component.getMaintainers()) == null,
+                        "Duplicate component path %s", path);
+                pathToComponentIndex.put(path.getPath(), component.getTitle());
+            });
+            component.getMaintainers().forEach(maintainer ->
+                    maintainerNameToComponentIndex.put(maintainer.getName(), component.getTitle()));
+            checkState(reviewComponentIndex.put(component.getTitle(), !component.getMaintainers().isEmpty()) == null,
+                    "Duplicate component title %s", component.getTitle());
+        }
+
+        if (keepsComponentIds(previous.maintainers, removed, added)) {
+            componentTitles = new ArrayList<>(previous.componentTitles);
+            componentIdIndex = new HashMap<>(previous.componentIdIndex);
+            reviewComponentIds = (BitSet) previous.reviewComponentIds.clone();
+            maintainerEmailToComponentIdsIndex = new HashMap<>(previous.maintainerEmailToComponentIdsIndex);
+            patchComponentIds(previous.maintainers);
+        } else {
+            componentTitles = new ArrayList<>(maintainers.size());
+            componentIdIndex = new HashMap<>();
+            reviewComponentIds = new BitSet(maintainers.size());
+            maintainerEmailToComponentIdsIndex = new HashMap<>();
+            indexComponentIds();
+        }
+
+        // trie depends only on paths and their order, so it's shared if no path was added or removed
+        if (pathToMaintainersIndex.keySet().equals(previous.pathToMaintainersIndex.keySet())) {
+            indexedPaths = previous.indexedPaths;
+            pathTrie = previous.pathTrie;
+        } else {
+            indexedPaths = new ArrayList<>(pathToMaintainersIndex.keySet());
+            pathTrie = new ComponentPathTrie(indexedPaths);
+        }
     }
 
-    private static int getPathLength(final String path) {
-        return StringUtils.countMatches(path, "/");
+    private void indexComponentIds() {
+        for (int id = 0; id < maintainers.size(); id++) {
+            final ComponentInfo component = maintainers.get(id);
+            componentTitles.add(component.getTitle());
+            componentIdIndex.put(component.getTitle(), id);
+            reviewComponentIds.set(id, !component.getMaintainers().isEmpty());
+            for (Maintainer maintainer : component.getMaintainers()) {
+                if (maintainer.getEmail() != null) {
+                    maintainerEmailToComponentIdsIndex.computeIfAbsent(
+                            Maintainer.normalizeEmail(maintainer.getEmail()), email -> new BitSet()).set(id);
+                }
+            }
+        }
+    }
+
+    // ids are kept if every changed component replaced removed one at the same position
+    private boolean keepsComponentIds(final List<ComponentInfo> previousMaintainers,
+                                      final Set<ComponentInfo> removed, final Set<ComponentInfo> added) {
+        if (previousMaintainers.size() != maintainers.size()) {
+            return false;
+        }
+        for (int id = 0; id < maintainers.size(); id++) {
+            final ComponentInfo component = maintainers.get(id);
+            if (component != previousMaintainers.get(id)
+                    && !(added.contains(component) && removed.contains(previousMaintainers.get(id)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // component sets of emails of unchanged maintainers stay shared, the others are copied before change
+    private void patchComponentIds(final List<ComponentInfo> previousMaintainers) {
+        final List<Integer> changedIds = new ArrayList<>();
+        for (int id = 0; id < maintainers.size(); id++) {
+            if (maintainers.get(id) != previousMaintainers.get(id)) {
+                changedIds.add(id);
+                componentIdIndex.remove(previousMaintainers.get(id).getTitle());
+            }
+        }
+
+        final Map<String, BitSet> copied = new HashMap<>();
+        for (int id : changedIds) {
+            final ComponentInfo component = maintainers.get(id);
+            componentTitles.set(id, component.getTitle());
+            componentIdIndex.put(component.getTitle(), id);
+            reviewComponentIds.set(id, !component.getMaintainers().isEmpty());
+            for (Maintainer maintainer : previousMaintainers.get(id).getMaintainers()) {
+                if (maintainer.getEmail() != null) {
+                    copiedComponentIds(Maintainer.normalizeEmail(maintainer.getEmail()), copied).clear(id);
+                }
+            }
+        }
+        for (int id : changedIds) {
+            for (Maintainer maintainer : maintainers.get(id).getMaintainers()) {
+                if (maintainer.getEmail() != null) {
+                    copiedComponentIds(Maintainer.normalizeEmail(maintainer.getEmail()), copied).set(id);
+                }
+            }
+        }
+        copied.forEach((email, componentIds) -> {
+            if (componentIds.isEmpty()) {
+                maintainerEmailToComponentIdsIndex.remove(email);
+            }
+        });
+    }
+
+    private BitSet copiedComponentIds(final String email, final Map<String, BitSet> copied) {
+        return copied.computeIfAbsent(email, key -> {
+            final BitSet current = maintainerEmailToComponentIdsIndex.get(key);
+            final BitSet componentIds = current == null
+                    ? new BitSet()
+                    : (BitSet) current.clone();
+            maintainerEmailToComponentIdsIndex.put(key, componentIds);
+            return componentIds;
+        });
+    }
+
+    private static Set<ComponentInfo> identitySet(final List<ComponentInfo> components) {
+        final Set<ComponentInfo> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(components);
+        return set;
+    }
+
+    /**
+     * Derives index for new version of maintainers file from this one. Components that did not change
+     * are shared by both indexes, only entries of changed components are patched, and matching trie is shared
+     * if no component path was added or removed. Returns this index if no component changed.
+     */
+    public MaintainersIndex derive(@Nonnull final List<ComponentInfo> newMaintainers,
+                                   @Nonnull final PluginGlobalSettings settings,
+                                   @Nullable final ForkJoinPool matchingPool) {
+        final Map<ComponentInfo, ComponentInfo> currentComponents = new HashMap<>();
+        maintainers.forEach(component -> currentComponents.putIfAbsent(component, component));
+
+        final List<ComponentInfo> sharedMaintainers = new ArrayList<>(newMaintainers.size());
+        int changed = 0;
+        for (ComponentInfo component : newMaintainers) {
+            final ComponentInfo current = currentComponents.get(component);
+            if (current == null) {
+                changed++;
+            }
+            sharedMaintainers.add(current != null
+                    ? current
+                    : component);
+        }
+
+        if (sharedMaintainers.equals(maintainers)) {
+            LOG.debug("No component changed, sharing whole index");
+            return this;
+        }
+        LOG.debug("Deriving index, {} of {} components changed", changed, newMaintainers.size());
+        return new MaintainersIndex(sharedMaintainers, settings, matchingPool, this);
+    }
+
+    /**
+     * Components in order of maintainers file
+     */
+    public List<ComponentInfo> getMaintainers() {
+        return maintainers;
+    }
+
+    /**
+     * Number of component paths of all components
+     */
+    public int getComponentPathCount() {
+        return pathToMaintainersIndex.size();
     }
 
     /**
@@ -83,6 +332,47 @@ public final class MaintainersIndex implements ClosestMatch {
         return reviewComponentIndex.get(component);
     }
 
+    /**
+     * Tells whether component with provided id has maintainers configured
+     */
+    public boolean isReviewComponent(final int componentId) {
+        return reviewComponentIds.get(componentId);
+    }
+
+    /**
+     * Dense id of component, ids are in range from 0 to number of components
+     */
+    public int getComponentId(@Nonnull final String component) {
+        return componentIdIndex.get(component);
+    }
+
+    public int getComponentIdForPath(@Nonnull final ComponentPath path) {
+        return getComponentId(getComponentForPath(path));
+    }
+
+    public String getComponentTitle(final int componentId) {
+        return componentTitles.get(componentId);
+    }
+
+    /**
+     * Adds ids of components maintained by maintainer with provided email to provided set
+     */
+    public void addComponentIdsForMaintainerEmail(@Nonnull final String email, @Nonnull final BitSet componentIds) {
+        final BitSet maintainerComponentIds = maintainerEmailToComponentIdsIndex.get(Maintainer.normalizeEmail(email));
+        if (maintainerComponentIds != null) {
+            componentIds.or(maintainerComponentIds);
+        }
+    }
+
+    // shared by derived indexes, if not changed by them
+    BitSet getComponentIdsForMaintainerEmail(@Nonnull final String email) {
+        return maintainerEmailToComponentIdsIndex.get(Maintainer.normalizeEmail(email));
+    }
+
+    ComponentPathTrie getPathTrie() {
+        return pathTrie;
+    }
+
     public Set<String> getComponentsForMaintainer(@Nonnull final String name) {
         return new HashSet<>(maintainerNameToComponentIndex.get(name));
     }
@@ -91,93 +381,240 @@ public final class MaintainersIndex implements ClosestMatch {
         return pathToComponentIndex.get(path.getPath());
     }
 
+    /**
+     * Most specific component paths of old and new name of entry
+     */
     public Tuple2<Set<ComponentPath>, Set<ComponentPath>> getComponentPathsForEntry(
             @Nonnull final PatchListEntry entry) {
-        final LinkedListMultimap<MatchLevel, ComponentPath> byMatchIndexOld = LinkedListMultimap.create();
-        final LinkedListMultimap<MatchLevel, ComponentPath> byMatchIndexNew = LinkedListMultimap.create();
-        pathToMaintainersIndex.forEach((key, value) -> byMatchIndexOld.put(key.matchAgainst(entry.getOldName()),
-                key));
+        return getComponentPaths(entry.getOldName(), entry.getNewName());
+    }
 
-        pathToMaintainersIndex.forEach((key, value) -> byMatchIndexNew.put(key.matchAgainst(entry.getNewName()),
-                key));
+    // both names are resolved by single walker, so directories they have in common are matched just once
+    Tuple2<Set<ComponentPath>, Set<ComponentPath>> getComponentPaths(final String oldName, final String newName) {
+        final ComponentPathTrie.Walker walker = pathTrie.walker();
+        return new Tuple2<>(getComponentPaths(walker, oldName), getComponentPaths(walker, newName));
+    }
 
-        final MatchLevel maxMatchLevelOld = maxMatchLevel(byMatchIndexOld.keys());
-        final MatchLevel maxMatchLevelNew = maxMatchLevel(byMatchIndexNew.keys());
+    private Set<ComponentPath> getComponentPaths(final ComponentPathTrie.Walker walker, final String path) {
+        return path == null
+                ? Collections.emptySet()
+                : resolve(path, walker::match).componentPaths;
+    }
 
-        final int mostSpecificLengthOld = mostSpecificPathLengthFromComponent(maxMatchLevelOld, byMatchIndexOld);
-        final int mostSpecificLengthNew = mostSpecificPathLengthFromComponent(maxMatchLevelOld, byMatchIndexOld);
+    public ComponentReviewInfo getReviewInfoForPath(final String path) {
+        LOG.debug("Getting maintainers for path {}", path);
+        return resolve(path, pathTrie::match).reviewInfo;
+    }
 
-        final Set<ComponentPath> oldComponents = NONE == maxMatchLevelOld
-                ? Collections.emptySet()
-                : new HashSet<>(byMatchIndexOld.get(maxMatchLevelOld)
-                        .stream()
-                        .filter(componentPath -> getPathLength(componentPath.getPath()) == mostSpecificLengthOld)
-                        .collect(Collectors.toList()));
+    /**
+     * Resolves all relevant files of patch list at once. Files are matched in sorted order,
+     * so that files within the same directory share matching work of their directory.
+     */
+    public PatchListMatch matchAll(@Nonnull final PatchList patchList) {
+        final List<PatchListEntry> entries = getRelevantPatchListEntries(patchList);
+        final SortedSet<String> paths = new TreeSet<>();
+        entries.forEach(entry -> {
+            if (entry.getOldName() != null) {
+                paths.add(entry.getOldName());
+            }
+            paths.add(entry.getNewName());
+        });
+        LOG.debug("Matching {} paths of {} patch list entries", paths.size(), entries.size());
 
-        final Set<ComponentPath> newComponents = NONE == maxMatchLevelNew
-                ? Collections.emptySet()
-                : new HashSet<>(byMatchIndexNew.get(maxMatchLevelNew).stream()
-                        .filter(componentPath -> getPathLength(componentPath.getPath()) == mostSpecificLengthNew)
-                        .collect(Collectors.toList()));
+        final List<String> sortedPaths = new ArrayList<>(paths);
+        final ResolvedPath[] resolvedPaths = resolveAll(sortedPaths);
 
-        return new Tuple2<>(oldComponents, newComponents);
+        final Map<String, ComponentReviewInfo> reviewInfoIndex = new HashMap<>();
+        final Map<String, Set<ComponentPath>> componentPathsIndex = new HashMap<>();
+        for (int i = 0; i < resolvedPaths.length; i++) {
+            reviewInfoIndex.put(sortedPaths.get(i), resolvedPaths[i].reviewInfo);
+            componentPathsIndex.put(sortedPaths.get(i), resolvedPaths[i].componentPaths);
+        }
+        return new PatchListMatch(entries, reviewInfoIndex, componentPathsIndex);
     }
 
-    public ComponentReviewInfo getReviewInfoForPath(final String path) {
-        LOG.debug("Getting maintainers for path {}", path);
-        final LinkedListMultimap<MatchLevel, Tuple2<ComponentPath, Maintainer>> byMatchIndex =
-                LinkedListMultimap.create();
+    /**
+     * Resolves sorted paths, result is in the same order as paths.
+     * Each range of paths is resolved into its own part of the result, so parallel resolution needs no locking.
+     */
+    ResolvedPath[] resolveAll(@Nonnull final List<String> sortedPaths) {
+        final ResolvedPath[] resolvedPaths = new ResolvedPath[sortedPaths.size()];
+        if (matchingPool != null && sortedPaths.size() > parallelThreshold) {
+            LOG.debug("Resolving {} paths in parallel", sortedPaths.size());
+            matchingPool.invoke(new ResolveTask(sortedPaths, resolvedPaths, 0, sortedPaths.size(),
+                    Math.max(MIN_PARALLEL_RANGE, sortedPaths.size() / (matchingPool.getParallelism() * 4))));
+        } else {
+            resolveRange(sortedPaths, resolvedPaths, 0, sortedPaths.size());
+        }
+        return resolvedPaths;
+    }
 
-        pathToMaintainersIndex.forEach((key, value) -> value
-                .forEach((entry -> byMatchIndex.put(key.matchAgainst(path), new Tuple2<>(key, entry)))));
+    private void resolveRange(final List<String> sortedPaths, final ResolvedPath[] resolvedPaths, final int from,
+                              final int to) {
+        if (sortedPaths.size() > directoryAggregationThreshold) {
+            resolveByDirectory(sortedPaths, resolvedPaths, from, to);
+        } else {
+            final ComponentPathTrie.Walker walker = pathTrie.walker();
+            for (int i = from; i < to; i++) {
+                resolvedPaths[i] = resolve(sortedPaths.get(i), walker::match);
+            }
+        }
+    }
 
-        final MatchLevel maximumMatchLevel = maxMatchLevel(byMatchIndex.keys());
-        LOG.debug("Maximum match level for path {} = {}", path, maximumMatchLevel);
+    /**
+     * Statistics of memo of already resolved paths, to be able to size it against real traffic
+     */
+    public CacheStats getReviewInfoCacheStats() {
+        return reviewInfoCache.stats();
+    }
+
+    // huge patchsets touch thousands of files in tens of directories, so matches shared by files of directory
+    // are resolved just once per directory, only name specific matches are resolved per file
+    private void resolveByDirectory(final List<String> sortedPaths, final ResolvedPath[] resolvedPaths,
+                                    final int from, final int to) {
+        LOG.debug("Resolving {} paths by directory", to - from);
+        final Map<String, DirectoryResolution> directories = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            final String path = sortedPaths.get(i);
+            final int nameStart = path.lastIndexOf('/') + 1;
+            if (nameStart == path.length()) {
+                // not a file
+                resolvedPaths[i] = resolve(path, pathTrie::match);
+                continue;
+            }
+
+            final DirectoryResolution directory = directories.computeIfAbsent(path.substring(0, nameStart),
+                    key -> new DirectoryResolution(pathTrie.matchDirectory(key)));
+            resolvedPaths[i] = resolve(path, (file, consumer) -> directory.match.matchFile(file, consumer),
+                    new MostSpecificMatch(directory.reviewMatch), new MostSpecificMatches(directory.matches));
+        }
+        LOG.debug("Paths resolved within {} directories", directories.size());
+    }
+
+    private ResolvedPath resolve(final String path, final BiConsumer<String, MatchConsumer> matcher) {
+        return resolve(path, matcher, new MostSpecificMatch(), new MostSpecificMatches());
+    }
 
-        // out of all that have maximum match level, we need only those that are most basically longest
-        // allows to get /foo/bar/* over * or /foo/*
-        final int mostSpecificPathLength = mostSpecificPathLengthFromTuple(maximumMatchLevel, byMatchIndex);
+    private ResolvedPath resolve(final String path, final BiConsumer<String, MatchConsumer> matcher,
+                                 final MostSpecificMatch mostSpecificMatch,
+                                 final MostSpecificMatches mostSpecificMatches) {
+        final ResolvedPath cached = reviewInfoCache.getIfPresent(path);
+        if (cached != null) {
+            return cached;
+        }
 
-        if (NONE == maximumMatchLevel) {
+        final MatchConsumer reviewRelevantMatch = reviewRelevant(mostSpecificMatch);
+        matcher.accept(path, (pattern, matchLevel) -> {
+            reviewRelevantMatch.accept(pattern, matchLevel);
+            mostSpecificMatches.accept(pattern, matchLevel);
+        });
+        final ResolvedPath resolvedPath =
+                new ResolvedPath(toReviewInfo(path, mostSpecificMatch), mostSpecificMatches.getComponentPaths());
+        reviewInfoCache.put(path, resolvedPath);
+        return resolvedPath;
+    }
+
+    // only paths of components that have maintainers are relevant for review
+    private MatchConsumer reviewRelevant(final MatchConsumer consumer) {
+        return (pattern, matchLevel) -> {
+            if (!pathToMaintainersIndex.get(pattern.getComponentPath()).isEmpty()) {
+                consumer.accept(pattern, matchLevel);
+            }
+        };
+    }
+
+    // out of all that have maximum match level, we need only those that are most basically longest
+    // allows to get /foo/bar/* over * or /foo/*
+    private ComponentReviewInfo toReviewInfo(final String path, final MostSpecificMatch mostSpecificMatch) {
+        if (!mostSpecificMatch.isPresent()) {
+            LOG.debug("Maximum match level for path {} = {}", path, NONE);
             return new ComponentReviewInfoBuilder()
                     .setAffectedFile(path).createComponentReviewInfo();
-        } else {
-            return byMatchIndex.get(maximumMatchLevel).stream()
-                    .filter(tuple -> getPathLength(tuple.a.getPath()) == mostSpecificPathLength)
-                    .peek(maintainer -> LOG
-                            .debug("Maintainer found [component={},reviewer={}]", maintainer.a, maintainer.b))
-                    .map(tuple -> new ComponentReviewInfoBuilder()
-                            .setAffectedFile(path)
-                            .setComponentName(getComponentForPath(tuple.a))
-                            .setComponentMaintainers(pathToMaintainersIndex.get(tuple.a))
-                            .createComponentReviewInfo())
-                    .findAny().orElse(new ComponentReviewInfoBuilder()
-                            .setAffectedFile(path).createComponentReviewInfo());
-        }
-    }
-
-    private MatchLevel maxMatchLevel(final Multiset<MatchLevel> keys) {
-        return keys.stream().max(MAX).orElse(NONE);
-    }
-
-    private int mostSpecificPathLengthFromTuple(final MatchLevel maximumMatchLevel,
-                                                final LinkedListMultimap<MatchLevel, Tuple2<ComponentPath, Maintainer>> byMatchIndex) {
-        return byMatchIndex.get(maximumMatchLevel)
-                .stream()
-                .map(tuple -> tuple.a)
-                .map(ComponentPath::getPath)
-                .map(MaintainersIndex::getPathLength)
-                .max(Comparator.comparingInt(integer -> integer))
-                .orElse(0);
-    }
-
-    private int mostSpecificPathLengthFromComponent(final MatchLevel maximumMatchLevel,
-                                                    final LinkedListMultimap<MatchLevel, ComponentPath> byMatchIndex) {
-        return byMatchIndex.get(maximumMatchLevel)
-                .stream()
-                .map(ComponentPath::getPath)
-                .map(MaintainersIndex::getPathLength)
-                .max(Comparator.comparingInt(integer -> integer))
-                .orElse(0);
+        }
+
+        final ComponentPath componentPath = mostSpecificMatch.getComponentPath();
+        LOG.debug("Maximum match level for path {} = {}", path, mostSpecificMatch.getMatchLevel());
+        LOG.debug("Maintainers found [component={},reviewers={}]", componentPath,
+                pathToMaintainersIndex.get(componentPath));
+        return new ComponentReviewInfoBuilder()
+                .setAffectedFile(path)
+                .setComponentName(getComponentForPath(componentPath))
+                .setComponentMaintainers(pathToMaintainersIndex.get(componentPath))
+                .createComponentReviewInfo();
+    }
+
+    /**
+     * Splits range of paths until it is small enough to be resolved by single thread
+     */
+    private final class ResolveTask extends RecursiveAction {
+        private final List<String> sortedPaths;
+        private final ResolvedPath[] resolvedPaths;
+        private final int from;
+        private final int to;
+        private final int rangeSize;
+
+        private ResolveTask(final List<String> sortedPaths, final ResolvedPath[] resolvedPaths, final int from,
+                            final int to, final int rangeSize) {
+            this.sortedPaths = sortedPaths;
+            this.resolvedPaths = resolvedPaths;
+            this.from = from;
+            this.to = to;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= rangeSize) {
+                resolveRange(sortedPaths, resolvedPaths, from, to);
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ResolveTask(sortedPaths, resolvedPaths, from, middle, rangeSize),
+                    new ResolveTask(sortedPaths, resolvedPaths, middle, to, rangeSize));
+        }
+    }
+
+    /**
+     * Matches shared by all files of single directory
+     */
+    private final class DirectoryResolution {
+        private final ComponentPathTrie.DirectoryMatch match;
+        private final MostSpecificMatch reviewMatch = new MostSpecificMatch();
+        private final MostSpecificMatches matches = new MostSpecificMatches();
+
+        private DirectoryResolution(final ComponentPathTrie.DirectoryMatch match) {
+            this.match = match;
+            final MatchConsumer reviewRelevantMatch = reviewRelevant(reviewMatch);
+            match.matchDirectory((pattern, matchLevel) -> {
+                reviewRelevantMatch.accept(pattern, matchLevel);
+                matches.accept(pattern, matchLevel);
+            });
+        }
+    }
+
+    /**
+     * Result of resolution of single path, cached per index
+     */
+    static final class ResolvedPath {
+        private final ComponentReviewInfo reviewInfo;
+        private final Set<ComponentPath> componentPaths;
+
+        private ResolvedPath(final ComponentReviewInfo reviewInfo, final Set<ComponentPath> componentPaths) {
+            this.reviewInfo = reviewInfo;
+            this.componentPaths = Collections.unmodifiableSet(componentPaths);
+        }
+
+        ComponentReviewInfo getReviewInfo() {
+            return reviewInfo;
+        }
+
+        Set<ComponentPath> getComponentPaths() {
+            return componentPaths;
+        }
+
+        private int weight() {
+            return reviewInfo.getAffectedFile().length() + componentPaths.size();
+        }
     }
 }
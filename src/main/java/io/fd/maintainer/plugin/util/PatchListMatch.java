@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import com.google.gerrit.server.patch.PatchListEntry;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.parboiled.common.Tuple2;
+
+/**
+ * Components of all relevant files of patch list, as resolved by {@link MaintainersIndex#matchAll}
+ */
+public final class PatchListMatch implements PatchListProcessing {
+
+    private final List<PatchListEntry> entries;
+    private final Map<String, ComponentReviewInfo> reviewInfoIndex;
+    private final Map<String, Set<ComponentPath>> componentPathsIndex;
+
+    PatchListMatch(final List<PatchListEntry> entries,
+                   final Map<String, ComponentReviewInfo> reviewInfoIndex,
+                   final Map<String, Set<ComponentPath>> componentPathsIndex) {
+        this.entries = entries;
+        this.reviewInfoIndex = reviewInfoIndex;
+        this.componentPathsIndex = componentPathsIndex;
+    }
+
+    /**
+     * Relevant entries of matched patch list
+     */
+    public List<PatchListEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Review info for relevant change name of every entry
+     */
+    public Set<ComponentReviewInfo> getReviewInfo() {
+        return entries.stream()
+                .map(this::getRelevantChangeName)
+                .map(reviewInfoIndex::get)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Most specific component paths matching provided file, empty if there are none
+     */
+    public Set<ComponentPath> getComponentPaths(final String path) {
+        return path == null
+                ? Collections.emptySet()
+                : componentPathsIndex.getOrDefault(path, Collections.emptySet());
+    }
+
+    /**
+     * Most specific component paths of old and new name of entry
+     */
+    public Tuple2<Set<ComponentPath>, Set<ComponentPath>> getComponentPathsForEntry(
+            @Nonnull final PatchListEntry entry) {
+        return new Tuple2<>(getComponentPaths(entry.getOldName()), getComponentPaths(entry.getNewName()));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.util;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Scheduled executor that starts new thread for every task and does not keep threads once task is done.
+ * At most maxTasks tasks run at once, threads of others wait for permit. Delayed tasks wait on single platform
+ * thread and are handed off to their own thread when they are due. Periodic tasks are not supported.
+ */
+final class ThreadPerTaskExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final ThreadFactory threadFactory;
+    private final Semaphore permits;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown;
+
+    ThreadPerTaskExecutor(@Nonnull final ThreadFactory threadFactory, @Nonnull final String namePrefix,
+                          final int maxTasks) {
+        this.threadFactory = threadFactory;
+        this.permits = new Semaphore(maxTasks);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName(namePrefix + "scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @Override
+    public void execute(@Nonnull final Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        final Thread thread = threadFactory.newThread(() -> run(command));
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void run(final Runnable command) {
+        try {
+            permits.acquire();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            threads.remove(Thread.currentThread());
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(@Nonnull final Runnable command, final long delay,
+                                       @Nonnull final TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(@Nonnull final Callable<V> callable, final long delay,
+                                           @Nonnull final TimeUnit unit) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        final DelayedTask<V> task = new DelayedTask<>(callable);
+        task.handOff = scheduler.schedule(() -> execute(task), delay, unit);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(@Nonnull final Runnable command, final long initialDelay,
+                                                  final long period, @Nonnull final TimeUnit unit) {
+        throw new UnsupportedOperationException("Periodic tasks are not supported");
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(@Nonnull final Runnable command, final long initialDelay,
+                                                     final long delay, @Nonnull final TimeUnit unit) {
+        throw new UnsupportedOperationException("Periodic tasks are not supported");
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        scheduler.shutdown();
+    }
+
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        final List<Runnable> delayed = scheduler.shutdownNow();
+        threads.forEach(Thread::interrupt);
+        return delayed;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && scheduler.isTerminated() && threads.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, @Nonnull final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!scheduler.awaitTermination(timeout, unit)) {
+            return false;
+        }
+        for (final Thread thread : threads) {
+            final long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(thread, left);
+        }
+        return isTerminated();
+    }
+
+    /**
+     * Task waiting for its delay on scheduler, completed by its own thread
+     */
+    private static final class DelayedTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+        private volatile ScheduledFuture<?> handOff;
+
+        private DelayedTask(final Callable<V> callable) {
+            super(callable);
+        }
+
+        @Override
+        public long getDelay(@Nonnull final TimeUnit unit) {
+            return handOff.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(@Nonnull final Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            handOff.cancel(false);
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
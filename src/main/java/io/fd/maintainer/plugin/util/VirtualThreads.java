@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.util;
+
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nonnull;
+
+/**
+ * Virtual threads of JVMs that support them (Java 21 and newer). Plugin is built for Java 8, so this version
+ * has none. Version that creates them is in META-INF/versions/21 of multi-release jar built by java21 profile.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Factory of virtual threads named by prefix and sequence number, empty if JVM does not support them
+     */
+    public static Optional<ThreadFactory> factory(@Nonnull final String namePrefix) {
+        return Optional.empty();
+    }
+
+    /**
+     * Scheduled executor that runs every task on its own virtual thread, up to maxThreads tasks at once.
+     * Empty if JVM does not support virtual threads.
+     */
+    public static Optional<ScheduledExecutorService> scheduledExecutor(@Nonnull final String namePrefix,
+                                                                       final int maxThreads) {
+        return factory(namePrefix).map(threadFactory -> new ThreadPerTaskExecutor(threadFactory, namePrefix,
+                maxThreads));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.util;
+
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nonnull;
+
+/**
+ * Virtual threads of Java 21 and newer, used instead of the Java 8 version in multi-release jar on these JVMs.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Factory of virtual threads named by prefix and sequence number
+     */
+    public static Optional<ThreadFactory> factory(@Nonnull final String namePrefix) {
+        return Optional.of(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+
+    /**
+     * Scheduled executor that runs every task on its own virtual thread, up to maxThreads tasks at once
+     */
+    public static Optional<ScheduledExecutorService> scheduledExecutor(@Nonnull final String namePrefix,
+                                                                       final int maxThreads) {
+        return factory(namePrefix).map(threadFactory -> new ThreadPerTaskExecutor(threadFactory, namePrefix,
+                maxThreads));
+    }
+}
@@ -86,4 +86,76 @@ public class ComponentPathTest {
         final ComponentPath base = new ComponentPath("*/");
         Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY, base.matchAgainst("lisp/new-file"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMatchPartialTrailingSlash() {
+        final ComponentPath base = new ComponentPath("src/vlib/");
+        Assert.assertEquals(ComponentPath.MatchLevel.PARTIAL, base.matchAgainst("src/vlib"));
+    }
+
+    @Test
+    public void testMatchPartialNoTrailingSlash() {
+        final ComponentPath base = new ComponentPath("src/vnet/map");
+        Assert.assertEquals(ComponentPath.MatchLevel.PARTIAL, base.matchAgainst("src/vnet/map/map.c"));
+    }
+
+    @Test
+    public void testMatchNoneLower() {
+        final ComponentPath base = new ComponentPath("src/vlib/");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vlib/unix/main.c"));
+    }
+
+    @Test
+    public void testMatchNoneSegmentPrefix() {
+        final ComponentPath base = new ComponentPath("src/vlib");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vlibapi/api.h"));
+    }
+
+    @Test
+    public void testMatchNoneShorterPath() {
+        final ComponentPath base = new ComponentPath("src/vnet/bfd/");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet"));
+    }
+
+    @Test
+    public void testMatchNoneWildcardExtensionNoDot() {
+        final ComponentPath base = new ComponentPath("src/*.mk");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/Makefile"));
+    }
+
+    @Test
+    public void testMatchNoneWildcardNotPrefix() {
+        final ComponentPath base = new ComponentPath("vnet/*");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet/ip/ip4.c"));
+    }
+
+    @Test
+    public void testMatchGlobAnyDirectories() {
+        final ComponentPath base = new ComponentPath("src/**/test/*.py");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION, base.matchAgainst("src/test/bfd.py"));
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION,
+                base.matchAgainst("src/vnet/bfd/test/bfd.py"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet/test/bfd/bfd.py"));
+    }
+
+    @Test
+    public void testMatchGlobSingleDirectory() {
+        final ComponentPath base = new ComponentPath("src/*/*.mk");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION, base.matchAgainst("src/vnet/vnet.mk"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet/ip/ip.mk"));
+    }
+
+    @Test
+    public void testMatchGlobCharacters() {
+        final ComponentPath base = new ComponentPath("src/vpp-api/?ava/[a-j]*");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY, base.matchAgainst("src/vpp-api/java/jvpp.c"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vpp-api/java/Makefile.am"));
+    }
+
+    @Test
+    public void testMatchGlobNegatedClass() {
+        final ComponentPath base = new ComponentPath("src/vnet/[!i]*/");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY, base.matchAgainst("src/vnet/bfd/bfd.c"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet/ip/ip4.c"));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing of generated maintainers file, 3000 components give file of roughly size of linux kernel one
+ * <pre>
+ * mvn test -Pbenchmark -Djmh.args="MaintainersParserBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaintainersParserBenchmark {
+
+    @Param({"100", "3000"})
+    private int components;
+
+    private MaintainersParser parser;
+    private byte[] content;
+
+    static String generate(final int components) {
+        final StringBuilder builder = new StringBuilder()
+                .append("Descriptions of section entries:")
+                .append(System.lineSeparator())
+                .append("\t\t-----------------------------------")
+                .append(System.lineSeparator());
+        for (int i = 0; i < components; i++) {
+            builder.append(System.lineSeparator())
+                    .append("Component ").append(i).append(System.lineSeparator())
+                    .append("M:\tMaintainer ").append(i).append(" <maintainer").append(i)
+                    .append("@example.com>").append(System.lineSeparator())
+                    .append("M:\tMaintainer ").append(i + 1).append(" <maintainer").append(i + 1)
+                    .append("@example.com>").append(System.lineSeparator())
+                    .append("F:\tsrc/component").append(i).append('/').append(System.lineSeparator())
+                    .append("F:\tsrc/include/component").append(i).append("/*.h").append(System.lineSeparator())
+                    .append("F:\tdocs/component").append(i).append(".md").append(System.lineSeparator())
+                    .append("C:\tComponent number ").append(i).append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    @Setup
+    public void setUp() {
+        parser = new MaintainersParser();
+        content = generate(components).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<ComponentInfo> parseMaintainers() throws IOException, MaintainerMismatchException {
+        return parser.parseMaintainers(new ByteArrayInputStream(content));
+    }
+}
@@ -22,11 +22,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.google.common.io.Files;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -125,6 +130,66 @@ public class MaintainersParserTest {
         assertEquals(32, maintainers.size());
     }
 
+    @Test
+    public void testParseStream() throws URISyntaxException, IOException, MaintainerMismatchException {
+        final MaintainersParser parser = new MaintainersParser();
+
+        final URL url = this.getClass().getResource("/maintainers");
+        final List<ComponentInfo> fromContent = parser.parseMaintainers(
+                Files.readLines(new File(url.toURI()), StandardCharsets.UTF_8).stream()
+                        .collect(Collectors.joining(System.lineSeparator())));
+        try (InputStream input = url.openStream()) {
+            final List<ComponentInfo> fromStream = parser.parseMaintainers(input);
+            assertEquals(fromContent.size(), fromStream.size());
+            for (int i = 0; i < fromContent.size(); i++) {
+                assertTrue(compare(fromContent.get(i), fromStream.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testParseLarge() throws IOException, MaintainerMismatchException {
+        final List<String> titles = new ArrayList<>();
+        new MaintainersParser().parseMaintainers(new StringReader(MaintainersParserBenchmark.generate(3000)),
+                componentInfo -> titles.add(componentInfo.getTitle()));
+
+        assertEquals(3000, titles.size());
+        assertEquals("Component 0", titles.get(0));
+        assertEquals("Component 2999", titles.get(2999));
+    }
+
+    @Test
+    public void testParseOwners() throws IOException, MaintainerMismatchException {
+        final String content = "M:\tKlement Sekera <ksekera@cisco.com>" + System.lineSeparator()
+                + System.lineSeparator()
+                + "BFD Tests" + System.lineSeparator()
+                + "M:\tDave Barach <dave@barachs.net>" + System.lineSeparator()
+                + "F:\t*.py" + System.lineSeparator();
+
+        final List<ComponentInfo> owners = new MaintainersParser()
+                .parseOwners(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "src/vnet/bfd/");
+        assertEquals(2, owners.size());
+        assertTrue(compare(owners.get(0), componentNoComment("src/vnet/bfd/",
+                of(m("Klement Sekera", "ksekera@cisco.com")), of(p("src/vnet/bfd/*")))));
+        assertTrue(compare(owners.get(1), componentNoComment("BFD Tests",
+                of(m("Dave Barach", "dave@barachs.net")), of(p("src/vnet/bfd/*.py")))));
+    }
+
+    @Test
+    public void testOwnersOfDirectoryOwnNestedFiles() throws IOException, MaintainerMismatchException {
+        final MaintainersParser parser = new MaintainersParser();
+        final List<ComponentInfo> owners = new ArrayList<>(parser.parseOwners(new ByteArrayInputStream(
+                "M:\tDave Barach <dave@barachs.net>".getBytes(StandardCharsets.UTF_8)), ""));
+        owners.addAll(parser.parseOwners(new ByteArrayInputStream(
+                "M:\tKlement Sekera <ksekera@cisco.com>".getBytes(StandardCharsets.UTF_8)), "src/vnet/"));
+
+        // src/vnet/sub/ has no ownership file of its own
+        final MaintainersIndex index = new MaintainersIndex(owners);
+        assertEquals("src/vnet/", index.getReviewInfoForPath("src/vnet/sub/a.c").getComponentName());
+        assertEquals("src/vnet/", index.getReviewInfoForPath("src/vnet/a.c").getComponentName());
+        assertEquals("/", index.getReviewInfoForPath("src/vlib/a.c").getComponentName());
+    }
+
     private boolean compare(final ComponentInfo first, final ComponentInfo second) {
         return new EqualsBuilder()
                 .append(first.getTitle(), second.getTitle())
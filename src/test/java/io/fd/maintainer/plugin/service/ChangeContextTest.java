@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.client.PatchSetApproval;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.change.ChangeResource;
+import com.google.gerrit.server.change.RevisionResource;
+import com.google.gerrit.server.patch.PatchList;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class ChangeContextTest {
+
+    private static final Change.Id CHANGE_ID = new Change.Id(42);
+    private static final String BRANCH = "refs/heads/master";
+
+    private final Multiset<String> loads = ConcurrentHashMultiset.create();
+
+    private final ReviewDb reviewDb = (ReviewDb) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{ReviewDb.class}, (proxy, method, args) -> {
+                loads.add(method.getName());
+                return null;
+            });
+
+    private final ChangeContext.Loader loader = new ChangeContext.Loader() {
+        @Override
+        public ReviewDb openReviewDb() {
+            loads.add("openReviewDb");
+            return reviewDb;
+        }
+
+        @Override
+        public PluginBranchSpecificSettings loadSettings(final String branchName) {
+            loads.add("loadSettings");
+            return new PluginBranchSpecificSettings.PluginSettingsBuilder()
+                    .setBranch(branchName)
+                    .setFileRef("master/HEAD")
+                    .createPluginSettings();
+        }
+
+        @Override
+        public Change loadChange(final ReviewDb db, final Change.Id changeId) {
+            loads.add("loadChange");
+            final Change change = new Change(new Change.Key("I42"), changeId, new Account.Id(1),
+                    new Branch.NameKey(new Project.NameKey("project"), BRANCH), new Timestamp(0));
+            change.setCurrentPatchSet(new PatchSet.Id(changeId, 3), "subject", "subject");
+            return change;
+        }
+
+        @Override
+        public PatchSet loadPatchSet(final ReviewDb db, final PatchSet.Id patchSetId) {
+            loads.add("loadPatchSet");
+            return new PatchSet(patchSetId);
+        }
+
+        @Override
+        public List<PatchSetApproval> loadApprovals(final ReviewDb db, final Change.Id changeId) {
+            loads.add("loadApprovals");
+            return Collections.emptyList();
+        }
+
+        @Override
+        public PatchList loadPatchList(final Change change, final PatchSet patchSet) {
+            loads.add("loadPatchList");
+            return null;
+        }
+
+        @Override
+        public ChangeResource loadChangeResource(final Change.Id changeId) {
+            loads.add("loadChangeResource");
+            return null;
+        }
+
+        @Override
+        public RevisionResource loadRevisionResource(final ChangeResource changeResource) {
+            loads.add("loadRevisionResource");
+            return null;
+        }
+    };
+
+    @Test
+    public void testEachPartLoadedOnce() {
+        try (final ChangeContext context = new ChangeContext(CHANGE_ID, BRANCH, loader)) {
+            for (int i = 0; i < 3; i++) {
+                assertSame(context.getChange(), context.getChange());
+                assertEquals(new PatchSet.Id(CHANGE_ID, 3), context.getCurrentPatchSet().getId());
+                assertEquals(new Project.NameKey("project"), context.getProject());
+                context.getSettings();
+                context.getApprovals();
+                context.getPatchList();
+                context.getChangeResource();
+                context.getRevisionResource();
+            }
+        }
+
+        for (String load : Arrays.asList("openReviewDb", "loadSettings", "loadChange", "loadPatchSet",
+                "loadApprovals", "loadPatchList", "loadChangeResource", "loadRevisionResource", "close")) {
+            assertEquals(load, 1, loads.count(load));
+        }
+    }
+
+    @Test
+    public void testReviewDbOpenedOnlyWhenNeeded() {
+        try (final ChangeContext context = new ChangeContext(CHANGE_ID, BRANCH, loader)) {
+            context.getSettings();
+            context.getChangeResource();
+        }
+
+        assertEquals(0, loads.count("openReviewDb"));
+        assertEquals(0, loads.count("close"));
+    }
+}
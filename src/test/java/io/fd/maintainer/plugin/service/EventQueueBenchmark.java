@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import io.fd.maintainer.plugin.util.VirtualThreads;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures processing of 1000 events in flight at once, each blocked for a while like on database, git or review,
+ * by platform threads of pool or by virtual threads. Memory is reported by gc profiler.
+ * Every event runs on its own virtual thread, up to maxThreads at once. Virtual threads need Java 21 or newer
+ * (java21 profile is then active), on older JVMs their runs fail at setup.
+ * <pre>
+ * mvn test -Pbenchmark -Djmh.args="EventQueueBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+    private static final int EVENTS = 1000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"2", "64", "1000"})
+    private int maxThreads;
+
+    @Param({"10"})
+    private int blockedMillis;
+
+    private final EventQueue queue = new EventQueue();
+    private ScheduledExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? VirtualThreads.scheduledExecutor("benchmark-event-", maxThreads)
+                .orElseThrow(() -> new IllegalStateException("Virtual threads are not supported by this JVM or build"))
+                : new ScheduledThreadPoolExecutor(maxThreads);
+        queue.start(executor, EVENTS, PluginGlobalSettings.OverflowPolicy.DISCARD, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        queue.stop();
+    }
+
+    @Benchmark
+    public void processEvents() throws InterruptedException {
+        final CountDownLatch processed = new CountDownLatch(EVENTS);
+        for (int change = 0; change < EVENTS; change++) {
+            queue.submit("change " + change, change, null, () -> {
+                try {
+                    Thread.sleep(blockedMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                processed.countDown();
+            });
+        }
+        processed.await();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.After;
+import org.junit.Test;
+
+public class EventQueueTest {
+
+    private final EventQueue queue = new EventQueue();
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        queue.stop();
+    }
+
+    private void awaitProcessed(final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (processed.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testCoalesceWithinQuietWindow() throws InterruptedException {
+        queue.start(new ScheduledThreadPoolExecutor(1), 100, PluginGlobalSettings.OverflowPolicy.DISCARD, 200);
+
+        for (int patchSet = 1; patchSet <= 5; patchSet++) {
+            final String event = "change 1 patchset " + patchSet;
+            assertTrue(queue.submit(event, 1, () -> processed.add(event)));
+        }
+        final String otherChange = "change 2 patchset 1";
+        queue.submit(otherChange, 2, () -> processed.add(otherChange));
+
+        awaitProcessed(2);
+        Thread.sleep(300);
+        assertEquals(2, processed.size());
+        assertTrue(processed.contains("change 1 patchset 5"));
+        assertTrue(processed.contains(otherChange));
+        assertEquals(4, queue.getSuperseded());
+        assertEquals(0, queue.getWaiting());
+    }
+
+    @Test
+    public void testDiscardWhenFull() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        queue.start(executor, 2, PluginGlobalSettings.OverflowPolicy.DISCARD, 0);
+
+        // first event occupies the only thread, two more fill the queue
+        final CountDownLatch started = new CountDownLatch(1);
+        queue.submit("blocking", () -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(queue.submit("first", () -> processed.add("first")));
+        assertTrue(queue.submit("second", () -> processed.add("second")));
+        assertFalse(queue.submit("third", () -> processed.add("third")));
+        assertEquals(1, queue.getDiscarded());
+
+        blocked.countDown();
+        awaitProcessed(2);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "second"), processed);
+    }
+
+    @Test
+    public void testCallerRunsWhenFull() {
+        queue.start(new ScheduledThreadPoolExecutor(1), 1, PluginGlobalSettings.OverflowPolicy.CALLER_RUNS, 60000);
+
+        assertTrue(queue.submit("queued", 1, () -> processed.add("queued")));
+        assertTrue(queue.submit("overflow", 2, () -> processed.add(Thread.currentThread().getName())));
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()), processed);
+    }
+
+    @Test
+    public void testOrderedEventWhenFull() {
+        queue.start(new ScheduledThreadPoolExecutor(1), 1, PluginGlobalSettings.OverflowPolicy.CALLER_RUNS, 60000);
+
+        // waits for quiet window in lane of its change, and fills the queue
+        assertTrue(queue.submit("queued", 1, 1, () -> processed.add("queued")));
+
+        // change without pending events is processed on dispatching thread, the other one can not be
+        assertTrue(queue.submit("idle", 2, null, () -> processed.add(Thread.currentThread().getName())));
+        assertFalse(queue.submit("pending", 1, null, () -> processed.add("pending")));
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()), processed);
+        assertEquals(1, queue.getDiscarded());
+        assertEquals(1, queue.getWaiting());
+    }
+
+    @Test
+    public void testOrderedPerKeyUnderInterleavedEvents() throws InterruptedException {
+        final int keys = 20;
+        final int events = 5000;
+        queue.start(new ScheduledThreadPoolExecutor(4), events, PluginGlobalSettings.OverflowPolicy.DISCARD, 5);
+
+        final int[] lastSequence = new int[keys];
+        final AtomicInteger[] inFlight = new AtomicInteger[keys];
+        for (int key = 0; key < keys; key++) {
+            inFlight[key] = new AtomicInteger();
+        }
+        final AtomicInteger violations = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+
+        final Random random = new Random(0);
+        int submitted = 0;
+        for (int sequence = 1; sequence <= events; sequence++) {
+            final int key = random.nextInt(keys);
+            final int eventSequence = sequence;
+            // some events of the key are coalesced, the rest keeps every event
+            final Object coalescingKey = random.nextInt(4) == 0
+                    ? key
+                    : null;
+            queue.submit("event " + sequence, key, coalescingKey, () -> {
+                if (inFlight[key].incrementAndGet() != 1) {
+                    violations.incrementAndGet();
+                }
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                if (lastSequence[key] >= eventSequence) {
+                    violations.incrementAndGet();
+                }
+                lastSequence[key] = eventSequence;
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                running.decrementAndGet();
+                inFlight[key].decrementAndGet();
+                done.incrementAndGet();
+            });
+            submitted++;
+        }
+
+        final long deadline = System.currentTimeMillis() + 30000;
+        while (done.get() + queue.getSuperseded() < submitted && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(submitted, done.get() + queue.getSuperseded());
+        assertEquals(0, violations.get());
+        assertEquals(0, queue.getWaiting());
+        assertTrue("Events of different keys should run in parallel", maxRunning.get() > 1);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.server.account.AccountByEmailCache;
+import com.google.gerrit.server.account.AccountCache;
+import com.google.gerrit.server.account.AccountState;
+import com.google.gerrit.server.account.ExternalId;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MaintainerAccountsTest {
+
+    private static final Maintainer MAINTAINER = new Maintainer("Jane Doe", "jane@example.com");
+
+    private final Map<Account.Id, AccountState> accounts = new HashMap<>();
+    private final AtomicInteger emailLookups = new AtomicInteger();
+    private MaintainerAccounts maintainerAccounts;
+
+    @Before
+    public void setUp() {
+        maintainerAccounts = new MaintainerAccounts();
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(AccountByEmailCache.class).toInstance(new AccountByEmailCache() {
+                    @Override
+                    public Set<Account.Id> get(final String email) {
+                        emailLookups.incrementAndGet();
+                        return accounts.values().stream()
+                                .filter(state -> AccountState.getEmails(state.getExternalIds()).contains(email))
+                                .map(state -> state.getAccount().getId())
+                                .collect(Collectors.toSet());
+                    }
+
+                    @Override
+                    public void evict(final String email) {
+                    }
+                });
+                bind(AccountCache.class).toInstance(new StubAccountCache());
+            }
+        }).injectMembers(maintainerAccounts);
+    }
+
+    private void addAccount(final int id, final String fullName, final String email) {
+        final Account.Id accountId = new Account.Id(id);
+        final Account account = new Account(accountId, new Timestamp(0));
+        account.setFullName(fullName);
+        accounts.put(accountId, new AccountState(account, Collections.emptySet(),
+                Collections.singleton(ExternalId.createEmail(accountId, email)), Collections.emptyMap()));
+    }
+
+    @Test
+    public void testResolveByEmail() {
+        addAccount(1, "Someone Else", "jane@example.com");
+
+        assertEquals(Optional.of(new Account.Id(1)), maintainerAccounts.getAccountId(MAINTAINER));
+        assertEquals(Optional.of(new Account.Id(1)), maintainerAccounts.getAccountId(MAINTAINER));
+        assertEquals(1, emailLookups.get());
+        assertEquals(Collections.singleton("jane@example.com"), maintainerAccounts.getEmails(new Account.Id(1)));
+    }
+
+    @Test
+    public void testResolveByMixedCaseEmail() {
+        addAccount(1, "John Doe", "john.doe@example.org");
+
+        assertEquals(Optional.of(new Account.Id(1)),
+                maintainerAccounts.getAccountId(new Maintainer("John Doe", "John.Doe@Example.org")));
+    }
+
+    @Test
+    public void testSharedEmailResolvedByName() {
+        addAccount(1, "Someone Else", "jane@example.com");
+        addAccount(2, "Jane Doe", "jane@example.com");
+
+        assertEquals(Optional.of(new Account.Id(2)), maintainerAccounts.getAccountId(MAINTAINER));
+    }
+
+    @Test
+    public void testInvalidatedWhenAccountIndexed() {
+        assertEquals(Optional.empty(), maintainerAccounts.getAccountId(MAINTAINER));
+        assertEquals(Collections.emptySet(), maintainerAccounts.getEmails(new Account.Id(1)));
+
+        addAccount(1, "Jane Doe", "jane@example.com");
+        maintainerAccounts.onAccountIndexed(1);
+
+        assertEquals(Optional.of(new Account.Id(1)), maintainerAccounts.getAccountId(MAINTAINER));
+        assertEquals(Collections.singleton("jane@example.com"), maintainerAccounts.getEmails(new Account.Id(1)));
+    }
+
+    private class StubAccountCache implements AccountCache {
+        @Override
+        public AccountState get(final Account.Id accountId) {
+            return accounts.get(accountId);
+        }
+
+        @Override
+        public AccountState getIfPresent(final Account.Id accountId) {
+            return accounts.get(accountId);
+        }
+
+        @Override
+        public AccountState getByUsername(final String username) {
+            return null;
+        }
+
+        @Override
+        public void evict(final Account.Id accountId) {
+        }
+
+        @Override
+        public void evictByUsername(final String username) {
+        }
+
+        @Override
+        public void evictAll() {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MaintainersFileLookupTest {
+
+    private static final String MAINTAINERS = "MAINTAINERS";
+    private static final PersonIdent AUTHOR = new PersonIdent("author", "author@example.com");
+
+    private InMemoryRepository repository;
+    private ObjectInserter inserter;
+    private RevWalk revWalk;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryRepository(new DfsRepositoryDescription("test"));
+        inserter = repository.newObjectInserter();
+        revWalk = new RevWalk(repository);
+    }
+
+    @After
+    public void tearDown() {
+        revWalk.close();
+        inserter.close();
+        repository.close();
+    }
+
+    private ObjectId blob(final String content) throws IOException {
+        return inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ObjectId commit(final ObjectId parent, final String fileName, final ObjectId blobId)
+            throws IOException {
+        final TreeFormatter tree = new TreeFormatter();
+        tree.append(fileName, FileMode.REGULAR_FILE, blobId);
+
+        final CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(inserter.insert(tree));
+        commit.setAuthor(AUTHOR);
+        commit.setCommitter(AUTHOR);
+        commit.setMessage(fileName);
+        if (parent != null) {
+            commit.setParentId(parent);
+        }
+        return inserter.insert(commit);
+    }
+
+    // commit with maintainers file, followed by given number of commits without it
+    private RevCommit history(final ObjectId maintainersBlobId, final int commitsWithoutFile) throws IOException {
+        final ObjectId otherBlobId = blob("other");
+        ObjectId head = commit(null, MAINTAINERS, maintainersBlobId);
+        for (int i = 0; i < commitsWithoutFile; i++) {
+            head = commit(head, "README", otherBlobId);
+        }
+        inserter.flush();
+        return revWalk.parseCommit(head);
+    }
+
+    @Test
+    public void testDeepHistory() throws IOException {
+        final ObjectId maintainersBlobId = blob("maintainers");
+        final RevCommit head = history(maintainersBlobId, 20000);
+
+        final MaintainersFileLookup lookup = new MaintainersFileLookup();
+        assertNull(lookup.findEntry(revWalk, head, MAINTAINERS));
+        assertEquals(maintainersBlobId, lookup.find(revWalk, head, MAINTAINERS, 20000));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMaxDepth() throws IOException {
+        final RevCommit head = history(blob("maintainers"), 100);
+        new MaintainersFileLookup().find(revWalk, head, MAINTAINERS, 99);
+    }
+
+    @Test
+    public void testMemoizedAncestor() throws IOException {
+        final ObjectId maintainersBlobId = blob("maintainers");
+        final RevCommit parent = history(maintainersBlobId, 100);
+        final MaintainersFileLookup lookup = new MaintainersFileLookup();
+        assertEquals(maintainersBlobId, lookup.find(revWalk, parent, MAINTAINERS, 100));
+
+        // lookup stops at already known parent
+        final ObjectId headId = commit(parent, "README", blob("changed"));
+        inserter.flush();
+        final RevCommit head = revWalk.parseCommit(headId);
+        assertEquals(maintainersBlobId, lookup.find(revWalk, head, MAINTAINERS, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRootReached() throws IOException {
+        final RevCommit head = history(blob("maintainers"), 10);
+        new MaintainersFileLookup().find(revWalk, head, "OWNERS", 100);
+    }
+}
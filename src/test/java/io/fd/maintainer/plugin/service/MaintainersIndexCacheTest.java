@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.gerrit.server.securestore.SecureStore;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MaintainersIndexCacheTest {
+
+    private static final ObjectId STALE_BLOB_ID = ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+    private static final ObjectId MASTER_BLOB_ID = ObjectId.fromString("1123456789abcdef0123456789abcdef01234567");
+    private static final ObjectId STABLE_BLOB_ID = ObjectId.fromString("2123456789abcdef0123456789abcdef01234567");
+
+    @Rule
+    public TemporaryFolder dataDirectory = new TemporaryFolder();
+
+    private final Cache<ObjectId, MaintainersIndex> cache = CacheBuilder.newBuilder().build();
+    private final MaintainersIndexCache indexCache = new MaintainersIndexCache();
+    private MaintainersIndexStore indexStore;
+
+    private static ComponentInfo component(final String title) {
+        return new ComponentInfo.ComponentInfoBuilder()
+                .setTitle(title)
+                .setMaintainers(Collections.singleton(new Maintainer(title, title + "@example.com")))
+                .setPaths(Collections.singleton(new ComponentPath(title + "/")))
+                .setComments(Collections.emptySet())
+                .createMaintainer();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        indexStore = new MaintainersIndexStore(dataDirectory.getRoot().toPath());
+
+        // gerrit creates this by injection only, global plugin config is provided as already loaded
+        final Constructor<PluginConfigFactory> constructor = PluginConfigFactory.class.getDeclaredConstructor(
+                SitePaths.class, Provider.class, ProjectCache.class, ProjectState.Factory.class, SecureStore.class);
+        constructor.setAccessible(true);
+        final PluginConfigFactory configFactory = constructor.newInstance(
+                new SitePaths(dataDirectory.getRoot().toPath()), (Provider<Config>) Config::new, null, null, null);
+        final Field pluginConfigs = PluginConfigFactory.class.getDeclaredField("pluginConfigs");
+        pluginConfigs.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        final Map<String, Config> configs = (Map<String, Config>) pluginConfigs.get(configFactory);
+        configs.put("maintainer", new Config());
+
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Cache<ObjectId, MaintainersIndex>>() {
+                }).annotatedWith(Names.named(MaintainersIndexCache.CACHE_NAME)).toInstance(cache);
+                bind(PluginConfigFactory.class).toInstance(configFactory);
+                bind(SettingsProvider.class).toInstance(new SettingsProvider());
+                bind(MatchingPool.class).toInstance(new MatchingPool());
+                bind(MaintainersIndexStore.class).toInstance(indexStore);
+            }
+        }).injectMembers(indexCache);
+    }
+
+    @Test
+    public void testStaleIndexSharedByBranches() {
+        final MaintainersIndex staleIndex = indexCache.get(STALE_BLOB_ID,
+                () -> Arrays.asList(component("a"), component("b")));
+
+        // both branches move off the same maintainers file, each of them derives from its index
+        indexCache.refresh(STALE_BLOB_ID, MASTER_BLOB_ID, () -> Arrays.asList(component("a"), component("c")));
+        indexCache.refresh(STALE_BLOB_ID, STABLE_BLOB_ID, () -> Arrays.asList(component("a"), component("d")));
+
+        final List<ComponentInfo> master = cache.getIfPresent(MASTER_BLOB_ID).getMaintainers();
+        final List<ComponentInfo> stable = cache.getIfPresent(STABLE_BLOB_ID).getMaintainers();
+        assertSame(staleIndex.getMaintainers().get(0), master.get(0));
+        assertSame(staleIndex.getMaintainers().get(0), stable.get(0));
+        assertEquals(component("d"), stable.get(1));
+
+        // other branches may still point to stale maintainers file
+        assertNotNull(cache.getIfPresent(STALE_BLOB_ID));
+        assertTrue(indexStore.load(STALE_BLOB_ID).isPresent());
+    }
+
+    @Test
+    public void testStoredIndexesBuilt() {
+        indexStore.save(STALE_BLOB_ID, Arrays.asList(component("a"), component("b")));
+        indexCache.buildStored();
+
+        assertEquals(Arrays.asList(component("a"), component("b")),
+                cache.getIfPresent(STALE_BLOB_ID).getMaintainers());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Files;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.MaintainersParser;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MaintainersIndexStoreTest {
+
+    private static final ObjectId BLOB_ID = ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+
+    @Rule
+    public TemporaryFolder dataDirectory = new TemporaryFolder();
+
+    private MaintainersIndexStore store;
+    private List<ComponentInfo> components;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new MaintainersIndexStore(dataDirectory.getRoot().toPath());
+        final String content = Files.readLines(new File(getClass().getResource("/maintainers").toURI()),
+                StandardCharsets.UTF_8).stream().collect(Collectors.joining(System.lineSeparator()));
+        components = new MaintainersParser().parseMaintainers(content);
+    }
+
+    private File storedFile() {
+        return new File(new File(dataDirectory.getRoot(), "maintainers-index"), BLOB_ID.name() + ".bin");
+    }
+
+    private static List<String> describe(final List<ComponentInfo> components) {
+        return components.stream()
+                .map(component -> component.getTitle() + component.getMaintainers() + component.getPaths()
+                        + component.getComments())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        assertFalse(store.load(BLOB_ID).isPresent());
+        store.save(BLOB_ID, components);
+
+        final Optional<List<ComponentInfo>> loaded = store.load(BLOB_ID);
+        assertTrue(loaded.isPresent());
+        assertEquals(describe(components), describe(loaded.get()));
+        assertEquals(Collections.singletonList(BLOB_ID), store.getStoredBlobIds());
+    }
+
+    @Test
+    public void testLeastRecentlyStoredDeleted() {
+        for (int i = 0; i <= MaintainersIndexStore.MAX_STORED; i++) {
+            store.save(ObjectId.fromRaw(new int[]{i, 0, 0, 0, 0}), Collections.emptyList());
+        }
+        assertEquals(MaintainersIndexStore.MAX_STORED, store.getStoredBlobIds().size());
+    }
+
+    @Test
+    public void testCorruptedDeleted() throws Exception {
+        store.save(BLOB_ID, components);
+        try (RandomAccessFile file = new RandomAccessFile(storedFile(), "rw")) {
+            file.seek(file.length() / 2);
+            final int value = file.read();
+            file.seek(file.length() / 2);
+            file.write(value ^ 0xff);
+        }
+
+        assertFalse(store.load(BLOB_ID).isPresent());
+        assertFalse(storedFile().exists());
+    }
+
+    @Test
+    public void testTruncatedDeleted() throws Exception {
+        store.save(BLOB_ID, components);
+        try (RandomAccessFile file = new RandomAccessFile(storedFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        assertFalse(store.load(BLOB_ID).isPresent());
+        assertFalse(storedFile().exists());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testVersionMismatch() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(MaintainersIndexStore.encode(BLOB_ID, components));
+        buffer.putInt(Integer.BYTES, MaintainersIndexStore.VERSION + 1);
+
+        // valid checksum, so that only version differs
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - Integer.BYTES);
+        buffer.putInt(buffer.limit() - Integer.BYTES, (int) crc.getValue());
+
+        MaintainersIndexStore.decode(buffer, BLOB_ID);
+    }
+}
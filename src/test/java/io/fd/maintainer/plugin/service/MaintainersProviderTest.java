@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class MaintainersProviderTest {
+
+    private static final Maintainer ROOT = new Maintainer("Root Owner", "root@example.com");
+    private static final Maintainer SRC = new Maintainer("Src Owner", "src@example.com");
+    private static final Maintainer OTHER = new Maintainer("Other Owner", "other@example.com");
+
+    private static ComponentInfo component(final String title, final Maintainer maintainer, final String path) {
+        return new ComponentInfo.ComponentInfoBuilder()
+                .setTitle(title)
+                .setMaintainers(Collections.singleton(maintainer))
+                .setPaths(Collections.singleton(new ComponentPath(path)))
+                .setComments(Collections.emptySet())
+                .createMaintainer();
+    }
+
+    @Test
+    public void testMergeDuplicateOwners() {
+        final List<ComponentInfo> merged = MaintainersProvider.mergeOwners(ImmutableMap.of(
+                "", Arrays.asList(component("/", ROOT, "*"), component("Tests", ROOT, "test/")),
+                "src/", Arrays.asList(component("src/", SRC, "src/"), component("Tests", SRC, "src/test/"),
+                        component("Other", OTHER, "test/"))));
+
+        assertEquals(Arrays.asList("/", "Tests", "src/", "src/Tests"),
+                merged.stream().map(ComponentInfo::getTitle).collect(Collectors.toList()));
+        assertEquals(of(ROOT, OTHER), merged.get(1).getMaintainers());
+        assertEquals(of(new ComponentPath("test/")), merged.get(1).getPaths());
+        assertEquals(of(SRC), merged.get(3).getMaintainers());
+        assertEquals(of(new ComponentPath("src/test/")), merged.get(3).getPaths());
+
+        // index is built without duplicate titles or paths
+        assertEquals(4, new MaintainersIndex(merged).getMaintainers().size());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.CurrentUser;
+import com.google.gerrit.server.IdentifiedUser;
+import com.google.gerrit.server.InternalUser;
+import com.google.gerrit.server.account.AccountCache;
+import com.google.gerrit.server.account.AccountState;
+import com.google.gerrit.server.account.ExternalId;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.gerrit.server.util.RequestContext;
+import com.google.gerrit.server.util.ThreadLocalRequestContext;
+import com.google.gwtorm.server.SchemaFactory;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Provider;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestContextsTest {
+
+    private static final Account.Id DISPATCHER = new Account.Id(1000001);
+    private static final Account.Id PLUGIN_USER = new Account.Id(1000002);
+
+    private final RequestContexts requestContexts = new RequestContexts();
+    private ThreadLocalRequestContext threadLocalRequestContext;
+    private IdentifiedUser.GenericFactory userFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        // gerrit creates these by injection only
+        final Constructor<ThreadLocalRequestContext> threadLocalConstructor =
+                ThreadLocalRequestContext.class.getDeclaredConstructor();
+        threadLocalConstructor.setAccessible(true);
+        threadLocalRequestContext = threadLocalConstructor.newInstance();
+
+        final AccountCache accountCache = stub(AccountCache.class, (method, args) -> {
+            final Account.Id accountId = method.equals("getByUsername")
+                    ? PLUGIN_USER
+                    : (Account.Id) args[0];
+            final String userName = PLUGIN_USER.equals(accountId)
+                    ? "plugin-user"
+                    : "dispatcher";
+            return new AccountState(new Account(accountId, new Timestamp(0)), Collections.emptySet(),
+                    Collections.singleton(ExternalId.createUsername(userName, accountId, null)),
+                    Collections.emptyMap());
+        });
+        userFactory = new IdentifiedUser.GenericFactory(null, null, null, null, null, true, accountCache, null);
+        final SchemaFactory<ReviewDb> schemaFactory = () -> stub(ReviewDb.class, (method, args) -> null);
+        final Constructor<OneOffRequestContext> oneOffConstructor = OneOffRequestContext.class
+                .getDeclaredConstructor(InternalUser.Factory.class, SchemaFactory.class,
+                        ThreadLocalRequestContext.class, IdentifiedUser.GenericFactory.class);
+        oneOffConstructor.setAccessible(true);
+        final OneOffRequestContext oneOffRequestContext = oneOffConstructor.newInstance(
+                (InternalUser.Factory) () -> null, schemaFactory, threadLocalRequestContext, userFactory);
+
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ThreadLocalRequestContext.class).toInstance(threadLocalRequestContext);
+                bind(OneOffRequestContext.class).toInstance(oneOffRequestContext);
+                bind(AccountCache.class).toInstance(accountCache);
+            }
+        }).injectMembers(requestContexts);
+    }
+
+    @After
+    public void tearDown() {
+        threadLocalRequestContext.setContext(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(final Class<T> type, final StubMethod method) {
+        return (T) Proxy.newProxyInstance(RequestContextsTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, invoked, args) -> method.invoke(invoked.getName(), args));
+    }
+
+    @Test
+    public void testTaskRunsAsDispatchingUser() throws InterruptedException {
+        final IdentifiedUser dispatcher = userFactory.create(DISPATCHER);
+        threadLocalRequestContext.setContext(new RequestContext() {
+            @Override
+            public CurrentUser getUser() {
+                return dispatcher;
+            }
+
+            @Override
+            public Provider<ReviewDb> getReviewDbProvider() {
+                return null;
+            }
+        });
+
+        final AtomicReference<CurrentUser> taskUser = new AtomicReference<>();
+        final AtomicReference<RequestContext> contextAfterTask = new AtomicReference<>();
+        final Runnable task = requestContexts.propagate(
+                () -> taskUser.set(threadLocalRequestContext.getContext().getUser()));
+        final Thread worker = new Thread(() -> {
+            task.run();
+            contextAfterTask.set(threadLocalRequestContext.getContext());
+        });
+        worker.start();
+        worker.join();
+
+        assertTrue(taskUser.get().isIdentifiedUser());
+        assertEquals(DISPATCHER, taskUser.get().asIdentifiedUser().getAccountId());
+        assertNull(contextAfterTask.get());
+    }
+
+    @Test
+    public void testOpenAsPluginUser() {
+        assertFalse(requestContexts.isCurrentUser("plugin-user"));
+        try (final ManualRequestContext ignored = requestContexts.openAs("plugin-user")) {
+            final CurrentUser user = threadLocalRequestContext.getContext().getUser();
+            assertTrue(user.isIdentifiedUser());
+            assertEquals(PLUGIN_USER, user.asIdentifiedUser().getAccountId());
+            assertTrue(requestContexts.isCurrentUser("plugin-user"));
+        }
+        assertFalse(requestContexts.isCurrentUser("plugin-user"));
+    }
+
+    private interface StubMethod {
+        Object invoke(String method, Object[] args);
+    }
+}
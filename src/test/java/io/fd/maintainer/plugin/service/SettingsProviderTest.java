@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gerrit.extensions.api.changes.NotifyHandling;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.gerrit.server.securestore.SecureStore;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Provider;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Map;
+import org.eclipse.jgit.lib.Config;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SettingsProviderTest {
+
+    @Rule
+    public TemporaryFolder siteDirectory = new TemporaryFolder();
+
+    private final Config config = new Config();
+    private final SettingsProvider settingsProvider = new SettingsProvider();
+
+    @Before
+    public void setUp() throws Exception {
+        // gerrit creates this by injection only, global plugin config is provided as already loaded
+        final Constructor<PluginConfigFactory> constructor = PluginConfigFactory.class.getDeclaredConstructor(
+                SitePaths.class, Provider.class, ProjectCache.class, ProjectState.Factory.class, SecureStore.class);
+        constructor.setAccessible(true);
+        final PluginConfigFactory configFactory = constructor.newInstance(
+                new SitePaths(siteDirectory.getRoot().toPath()), (Provider<Config>) Config::new, null, null, null);
+        final Field pluginConfigs = PluginConfigFactory.class.getDeclaredField("pluginConfigs");
+        pluginConfigs.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        final Map<String, Config> configs = (Map<String, Config>) pluginConfigs.get(configFactory);
+        configs.put("maintainer", config);
+
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(PluginConfigFactory.class).toInstance(configFactory);
+            }
+        }).injectMembers(settingsProvider);
+
+        config.setString("branch", "refs/heads/*", "pluginuser", "maintainer-bot");
+    }
+
+    @Test
+    public void testInvalidReviewNotifyFallsBackToDefault() {
+        config.setString("branch", "refs/heads/master", "pluginuser", "maintainer-bot");
+        config.setString("branch", "refs/heads/master", "reviewnotify", "invalid");
+
+        assertEquals(NotifyHandling.ALL,
+                settingsProvider.getBranchSpecificSettings("master").getReviewNotify());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gerrit.extensions.api.changes.NotifyHandling;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DeadLetterStoreTest {
+
+    @Rule
+    public TemporaryFolder dataDirectory = new TemporaryFolder();
+
+    private DeadLetterStore store;
+
+    @Before
+    public void setUp() {
+        store = new DeadLetterStore(dataDirectory.getRoot().toPath());
+    }
+
+    private static PendingPush failedPush() {
+        final ReviewInput review = ReviewInput.dislike().message("warnings").reviewer("1000001");
+        review.notify = NotifyHandling.OWNER;
+        return new PendingPush(42, "refs/heads/master", 3,
+                Arrays.asList(PushOperation.review(review), PushOperation.submit()))
+                .failed(Arrays.asList(PushOperation.review(review), PushOperation.submit()),
+                        new IOException("lock failure"));
+    }
+
+    @Test
+    public void testStoredPushIsReadBack() {
+        final String id = store.add(failedPush()).get();
+
+        final PendingPush stored = store.get(id).get();
+        assertEquals(42, stored.getChangeNumber());
+        assertEquals("refs/heads/master", stored.getBranchName());
+        assertEquals(3, stored.getPatchSetNumber());
+        assertEquals(1, stored.getAttempts());
+        assertEquals("java.io.IOException: lock failure", stored.getLastError());
+        assertEquals(failedPush().getOperations().toString(), stored.getOperations().toString());
+
+        final ReviewInput review = stored.getOperations().get(0).toReviewInput("plugin-user");
+        assertEquals("warnings", review.message);
+        assertEquals(Short.valueOf((short) -1), review.labels.get("Code-Review"));
+        assertEquals("1000001", review.reviewers.get(0).reviewer);
+        assertEquals(NotifyHandling.OWNER, review.notify);
+        assertEquals("plugin-user", review.onBehalfOf);
+    }
+
+    @Test
+    public void testSamePushStoredTwiceHasDistinctIds() {
+        final PendingPush push = failedPush();
+        final String first = store.add(push).get();
+        final String second = store.add(push).get();
+
+        assertFalse(first.equals(second));
+        assertEquals(Arrays.asList(first, second), Arrays.asList(store.getAll().keySet().toArray()));
+        assertTrue(store.remove(first));
+        assertFalse(store.remove(first));
+        assertEquals(1, store.getAll().size());
+    }
+
+    @Test
+    public void testUnreadableAndInvalidIdsAreSkipped() throws IOException {
+        final String id = store.add(failedPush()).get();
+        Files.write(new File(new File(dataDirectory.getRoot(), "dead-letters"), "1-2-3.json").toPath(),
+                "{not json".getBytes());
+
+        final Map<String, PendingPush> all = store.getAll();
+        assertEquals(1, all.size());
+        assertTrue(all.containsKey(id));
+        assertFalse(store.get("../" + id).isPresent());
+        assertFalse(store.remove("../" + id));
+    }
+}
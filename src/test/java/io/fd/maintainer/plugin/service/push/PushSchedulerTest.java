@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gerrit.extensions.restapi.AuthException;
+import com.google.gerrit.extensions.restapi.MergeConflictException;
+import com.google.gerrit.extensions.restapi.ResourceConflictException;
+import com.google.gerrit.server.update.UpdateException;
+import com.google.gwtorm.server.OrmException;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+
+public class PushSchedulerTest {
+
+    @Test
+    public void testBackoffDoublesWithJitterUpToMaximum() {
+        final Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            final long first = PushScheduler.backoff(1, 1000, 60000, random);
+            assertTrue(first >= 500 && first <= 1000);
+            final long third = PushScheduler.backoff(3, 1000, 60000, random);
+            assertTrue(third >= 2000 && third <= 4000);
+            final long capped = PushScheduler.backoff(40, 1000, 60000, random);
+            assertTrue(capped >= 30000 && capped <= 60000);
+        }
+    }
+
+    @Test
+    public void testBackoffIsSpread() {
+        final Random random = new Random(0);
+        final long first = PushScheduler.backoff(5, 1000, 60000, random);
+        boolean spread = false;
+        for (int i = 0; i < 100 && !spread; i++) {
+            spread = PushScheduler.backoff(5, 1000, 60000, random) != first;
+        }
+        assertTrue(spread);
+    }
+
+    @Test
+    public void testTransientFailuresAreRetried() {
+        assertTrue(PushScheduler.isRetryable(new IOException("lock failure")));
+        assertTrue(PushScheduler.isRetryable(new UpdateException("lock failure")));
+        assertTrue(PushScheduler.isRetryable(new ResourceConflictException("concurrent update")));
+        assertTrue(PushScheduler.isRetryable(new IllegalStateException("Unable to load change",
+                new OrmException("connection lost"))));
+
+        assertFalse(PushScheduler.isRetryable(new AuthException("not permitted")));
+        assertFalse(PushScheduler.isRetryable(new MergeConflictException("conflict")));
+        assertFalse(PushScheduler.isRetryable(new IllegalStateException("Unable to load revision",
+                new AuthException("not permitted"))));
+        assertTrue(PushScheduler.isRetryable(new IllegalStateException("no cause")));
+    }
+}
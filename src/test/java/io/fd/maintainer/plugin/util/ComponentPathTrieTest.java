@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import static org.junit.Assert.assertEquals;
+
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class ComponentPathTrieTest {
+
+    private static final List<ComponentPath> PATHS = Arrays.asList(
+            p("Makefile"), p("src/*.ac"), p("src/*.am"), p("src/*.mk"), p("src/m4/"),
+            p("build-root/Makefile"), p("build-data/*"), p("dpdk/"), p("dpdk/*"),
+            p("src/vnet/map"), p("src/vnet/bfd/"), p("src/vl*"), p("vnet/*"), p("*"), p("*/"), p("*.py"),
+            p("foo.d/*"), p("a/b/c/d"), p("src/**/test/*.py"), p("src/*/*.mk"), p("src/vnet/[!i]*/"),
+            p("**/Makefile.?m"));
+
+    private static final List<String> FILES = Arrays.asList(
+            "Makefile", "Makefile/nested", "src/Makefile.am", "src/vnet/Makefile.am", "src/m4/ax.m4",
+            "src/m4/deep/ax.m4", "build-root/Makefile", "build-data/platforms/vpp.mk", "dpdk/Makefile",
+            "dpdk/dpdk-17.02_patches/0001.patch", "src/vnet/map/map.c", "src/vnet/map", "src/vnet/bfd/bfd.c",
+            "src/vnet/bfd/", "src/vlib/main.c", "src/vnet/ip/ip4.c", "test/test_bfd.py", "foo.d/*", "dpdk/*",
+            "a/b", "a/b/c", "README", "", "/", "src//vnet", "src/vnet/bfd/test/bfd.py", "src/vnet/vnet.mk");
+
+    private static ComponentPath p(final String path) {
+        return new ComponentPath(path);
+    }
+
+    private static MatchLevel referenceMatch(final ComponentPath componentPath, final String file) {
+        try {
+            return componentPath.matchAgainst(file);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // reference fails for non-wildcard paths that are longer than matched file
+            return MatchLevel.NONE;
+        }
+    }
+
+    @Test
+    public void testSameMatchesAsComponentPath() {
+        final ComponentPathTrie trie = new ComponentPathTrie(PATHS);
+
+        for (String file : FILES) {
+            final Map<ComponentPath, MatchLevel> expected = PATHS.stream()
+                    .filter(path -> referenceMatch(path, file) != MatchLevel.NONE)
+                    .collect(Collectors.toMap(path -> path, path -> referenceMatch(path, file)));
+
+            final Map<ComponentPath, MatchLevel> actual = new HashMap<>();
+            trie.match(file, (pattern, matchLevel) -> actual.put(pattern.getComponentPath(), matchLevel));
+
+            assertEquals("Matches for " + file, expected, actual);
+        }
+    }
+
+    @Test
+    public void testWalkerSameMatchesAsTrie() {
+        final ComponentPathTrie trie = new ComponentPathTrie(PATHS);
+        final List<String> files = new ArrayList<>(FILES);
+        files.addAll(Arrays.asList("src/vnet/bfd/bfd_api.c", "src/vnet/bfd/test/bfd.py", "src/vnet/ip/ip6.c",
+                "build-data/platforms/vpp.mk", "build-data/packages/vpp.mk", "/root.mk", "a/b/c/d", "a/b/c/d/e"));
+        Collections.sort(files);
+
+        final ComponentPathTrie.Walker walker = trie.walker();
+        for (String file : files) {
+            final Map<ComponentPath, MatchLevel> expected = new HashMap<>();
+            trie.match(file, (pattern, matchLevel) -> expected.put(pattern.getComponentPath(), matchLevel));
+
+            final Map<ComponentPath, MatchLevel> actual = new HashMap<>();
+            walker.match(file, (pattern, matchLevel) -> actual.put(pattern.getComponentPath(), matchLevel));
+
+            assertEquals("Matches for " + file, expected, actual);
+        }
+    }
+
+    @Test
+    public void testDirectoryMatchSameMostSpecificAsTrie() {
+        final ComponentPathTrie trie = new ComponentPathTrie(PATHS);
+        final List<String> files = new ArrayList<>(FILES);
+        files.addAll(Arrays.asList("src/vnet/bfd/bfd_api.c", "src/vnet/ip/ip6.c", "foo.d/bar", "src/vlib.c"));
+
+        for (String file : files) {
+            final int nameStart = file.lastIndexOf('/') + 1;
+            if (nameStart == file.length()) {
+                continue;
+            }
+
+            final ComponentPathTrie.MostSpecificMatches expected = new ComponentPathTrie.MostSpecificMatches();
+            final ComponentPathTrie.MostSpecificMatch expectedMatch = new ComponentPathTrie.MostSpecificMatch();
+            trie.match(file, expected);
+            trie.match(file, expectedMatch);
+
+            final ComponentPathTrie.DirectoryMatch directoryMatch = trie.matchDirectory(file.substring(0, nameStart));
+            final ComponentPathTrie.MostSpecificMatches directory = new ComponentPathTrie.MostSpecificMatches();
+            final ComponentPathTrie.MostSpecificMatch directoryMostSpecific = new ComponentPathTrie.MostSpecificMatch();
+            directoryMatch.matchDirectory(directory);
+            directoryMatch.matchDirectory(directoryMostSpecific);
+
+            final ComponentPathTrie.MostSpecificMatches actual = new ComponentPathTrie.MostSpecificMatches(directory);
+            final ComponentPathTrie.MostSpecificMatch actualMatch =
+                    new ComponentPathTrie.MostSpecificMatch(directoryMostSpecific);
+            directoryMatch.matchFile(file, actual);
+            directoryMatch.matchFile(file, actualMatch);
+
+            assertEquals("Matches for " + file, expected.getComponentPaths(), actual.getComponentPaths());
+            assertEquals("Match for " + file, expectedMatch.getComponentPath(), actualMatch.getComponentPath());
+        }
+    }
+
+    @Test
+    public void testTooComplexPatternsMatchedSeparately() {
+        final ComponentPathTrie trie = new ComponentPathTrie(PATHS);
+        // too few states for all wildcard paths, so some of them are left out of automaton
+        final ComponentPathTrie limitedTrie = new ComponentPathTrie(PATHS, 16);
+        final List<String> files = new ArrayList<>(FILES);
+        Collections.sort(files);
+
+        final ComponentPathTrie.Walker walker = limitedTrie.walker();
+        for (String file : files) {
+            final Map<ComponentPath, MatchLevel> expected = new HashMap<>();
+            trie.match(file, (pattern, matchLevel) -> expected.put(pattern.getComponentPath(), matchLevel));
+
+            final Map<ComponentPath, MatchLevel> actual = new HashMap<>();
+            limitedTrie.match(file, (pattern, matchLevel) -> actual.put(pattern.getComponentPath(), matchLevel));
+            assertEquals("Matches for " + file, expected, actual);
+
+            final Map<ComponentPath, MatchLevel> walked = new HashMap<>();
+            walker.match(file, (pattern, matchLevel) -> walked.put(pattern.getComponentPath(), matchLevel));
+            assertEquals("Walked matches for " + file, expected, walked);
+        }
+    }
+
+    @Test
+    public void testMostSpecificMatches() {
+        final ComponentPathTrie trie = new ComponentPathTrie(PATHS);
+
+        final ComponentPathTrie.MostSpecificMatches dpdk = new ComponentPathTrie.MostSpecificMatches();
+        trie.match("dpdk/dpdk-17.02_patches/0001.patch", dpdk);
+        assertEquals(new HashSet<>(Arrays.asList(p("dpdk/*"), p("*/"))), dpdk.getComponentPaths());
+    }
+
+    @Test
+    public void testMostSpecificMatch() {
+        final ComponentPathTrie trie = new ComponentPathTrie(PATHS);
+
+        final ComponentPathTrie.MostSpecificMatch makefileAm = new ComponentPathTrie.MostSpecificMatch();
+        trie.match("src/vnet/Makefile.am", makefileAm);
+        assertEquals(p("src/*.am"), makefileAm.getComponentPath());
+
+        final ComponentPathTrie.MostSpecificMatch bfd = new ComponentPathTrie.MostSpecificMatch();
+        trie.match("src/vnet/bfd/bfd.c", bfd);
+        assertEquals(p("src/vnet/bfd/"), bfd.getComponentPath());
+
+        // same level and length, first one wins
+        final ComponentPathTrie.MostSpecificMatch dpdk = new ComponentPathTrie.MostSpecificMatch();
+        trie.match("dpdk/dpdk-17.02_patches/0001.patch", dpdk);
+        assertEquals(p("dpdk/*"), dpdk.getComponentPath());
+    }
+}
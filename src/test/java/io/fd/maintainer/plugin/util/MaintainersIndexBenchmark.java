@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import com.google.common.io.Files;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.MaintainersParser;
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures resolution of very large patchset against test maintainers file, by parallelism of matching pool.
+ * Parallelism 0 resolves on calling thread.
+ * <pre>
+ * mvn test -Pbenchmark -Djmh.args="MaintainersIndexBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaintainersIndexBenchmark {
+
+    private static final String[] NAMES = {"main.c", "api.h", "node.c", "Makefile.am", "test.py", "build.mk"};
+    private static final String[] DIRECTORIES = {"", "test/", "unix/", "plugins/foo/"};
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"20000"})
+    private int files;
+
+    private ForkJoinPool pool;
+    private MaintainersIndex index;
+    private List<String> paths;
+
+    @Setup
+    public void setUp() throws Exception {
+        final String content = Files.readLines(new File(getClass().getResource("/maintainers").toURI()),
+                StandardCharsets.UTF_8).stream().collect(Collectors.joining(System.lineSeparator()));
+        final List<ComponentInfo> maintainers = new MaintainersParser().parseMaintainers(content);
+
+        pool = parallelism == 0
+                ? null
+                : new ForkJoinPool(parallelism);
+        // memo is disabled, so that every iteration resolves all paths
+        index = new MaintainersIndex(maintainers, new PluginGlobalSettings.GlobalSettingsBuilder()
+                .setReviewInfoCacheWeight(0)
+                .setParallelThreshold(0)
+                .createGlobalSettings(), pool);
+
+        final List<String> componentDirectories = maintainers.stream()
+                .flatMap(component -> component.getPaths().stream())
+                .map(ComponentPath::getPath)
+                .filter(path -> path.endsWith("/"))
+                .collect(Collectors.toList());
+        final Random random = new Random(0);
+        final SortedSet<String> sortedPaths = new TreeSet<>();
+        while (sortedPaths.size() < files) {
+            sortedPaths.add(componentDirectories.get(random.nextInt(componentDirectories.size()))
+                    + DIRECTORIES[random.nextInt(DIRECTORIES.length)]
+                    + random.nextInt(files / 10) + NAMES[random.nextInt(NAMES.length)]);
+        }
+        paths = new ArrayList<>(sortedPaths);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public MaintainersIndex.ResolvedPath[] resolveAll() {
+        return index.resolveAll(paths);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.io.Files;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.parser.MaintainersParser;
+import io.fd.maintainer.plugin.service.dto.PluginGlobalSettings;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.parboiled.common.Tuple2;
+
+public class MaintainersIndexTest {
+
+    private static final List<String> FILES = Arrays.asList(
+            "Makefile", "src/Makefile.am", "src/vnet/Makefile.am", "src/m4/ax.m4", "build-root/Makefile",
+            "build-data/platforms/vpp.mk", "dpdk/Makefile", "src/vnet/bfd/bfd_main.c", "src/vnet/bfd/bfd_api.c",
+            "src/vnet/ip/ip4.c", "src/vnet/ip/ip6.c", "src/vlib/main.c", "src/vlib/unix/main.c", "test/test_bfd.py",
+            "src/vnet/dpo/dpo.c", "README.md", "src/vnet/fib/");
+
+    private List<ComponentInfo> maintainers;
+
+    @Before
+    public void setUp() throws Exception {
+        final String content = Files.readLines(new File(getClass().getResource("/maintainers").toURI()),
+                StandardCharsets.UTF_8).stream().collect(Collectors.joining(System.lineSeparator()));
+        maintainers = new MaintainersParser().parseMaintainers(content);
+    }
+
+    private static List<List<Object>> resolve(final MaintainersIndex index, final List<String> paths) {
+        return Arrays.stream(index.resolveAll(paths))
+                .map(resolvedPath -> Arrays.<Object>asList(resolvedPath.getReviewInfo(),
+                        resolvedPath.getComponentPaths()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testParallelSameAsSequential() {
+        final List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            for (String file : FILES) {
+                paths.add(file.endsWith("/") ? file + i + "/" : file + i);
+            }
+        }
+        Collections.sort(paths);
+
+        final List<List<Object>> expected = resolve(new MaintainersIndex(maintainers,
+                new PluginGlobalSettings.GlobalSettingsBuilder()
+                        .setDirectoryAggregationThreshold(Integer.MAX_VALUE)
+                        .createGlobalSettings(), null), paths);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final MaintainersIndex parallel = new MaintainersIndex(maintainers,
+                    new PluginGlobalSettings.GlobalSettingsBuilder()
+                            .setParallelThreshold(0)
+                            .setDirectoryAggregationThreshold(0)
+                            .createGlobalSettings(), pool);
+            assertEquals(expected, resolve(parallel, paths));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRenameComponentPaths() {
+        final MaintainersIndex index = new MaintainersIndex(maintainers);
+
+        // each name is resolved by its own specificity
+        final Tuple2<Set<ComponentPath>, Set<ComponentPath>> paths =
+                index.getComponentPaths("src/vnet/bfd/bfd_main.c", "src/vnet/Makefile.am");
+        assertEquals(Collections.singleton(new ComponentPath("src/vnet/bfd/")), paths.a);
+        assertEquals(Collections.singleton(new ComponentPath("src/*.am")), paths.b);
+
+        final Tuple2<Set<ComponentPath>, Set<ComponentPath>> added =
+                index.getComponentPaths(null, "src/vnet/bfd/bfd_api.c");
+        assertEquals(Collections.emptySet(), added.a);
+        assertEquals(Collections.singleton(new ComponentPath("src/vnet/bfd/")), added.b);
+    }
+
+    @Test
+    public void testComponentIdsForMaintainerEmail() {
+        final MaintainersIndex index = new MaintainersIndex(maintainers);
+
+        final BitSet componentIds = new BitSet();
+        index.addComponentIdsForMaintainerEmail("DAMarion@cisco.com", componentIds);
+        index.addComponentIdsForMaintainerEmail("unknown@example.com", componentIds);
+
+        final Set<String> components = componentIds.stream()
+                .mapToObj(index::getComponentTitle)
+                .collect(Collectors.toSet());
+        assertEquals(index.getComponentsForMaintainer("Damjan Marion"), components);
+        assertEquals(index.getComponentId("Build System"),
+                index.getComponentIdForPath(new ComponentPath("src/*.mk")));
+    }
+
+    @Test
+    public void testDeriveSharesUnchangedComponents() {
+        final PluginGlobalSettings settings = new PluginGlobalSettings.GlobalSettingsBuilder().createGlobalSettings();
+        final MaintainersIndex index = new MaintainersIndex(maintainers, settings, null);
+        assertSame(index, index.derive(new ArrayList<>(maintainers), settings, null));
+
+        // new maintainer of one component
+        final List<ComponentInfo> changedMaintainers = new ArrayList<>(maintainers);
+        final ComponentInfo changed = maintainers.get(5);
+        final Set<Maintainer> changedComponentMaintainers = new HashSet<>(changed.getMaintainers());
+        changedComponentMaintainers.add(new Maintainer("New Maintainer", "new@example.com"));
+        changedMaintainers.set(5, new ComponentInfo.ComponentInfoBuilder()
+                .setTitle(changed.getTitle())
+                .setMaintainers(changedComponentMaintainers)
+                .setPaths(changed.getPaths())
+                .setComments(changed.getComments())
+                .createMaintainer());
+
+        final MaintainersIndex derived = index.derive(changedMaintainers, settings, null);
+        for (int i = 0; i < maintainers.size(); i++) {
+            if (i != 5) {
+                assertSame(maintainers.get(i), derived.getMaintainers().get(i));
+            }
+        }
+        assertEquals(resolve(new MaintainersIndex(changedMaintainers, settings, null), FILES),
+                resolve(derived, FILES));
+        assertEquals(Collections.singleton(changed.getTitle()),
+                derived.getComponentsForMaintainer("New Maintainer"));
+    }
+
+    @Test
+    public void testDerivePatchesOnlyChangedComponents() {
+        final PluginGlobalSettings settings = new PluginGlobalSettings.GlobalSettingsBuilder().createGlobalSettings();
+        final MaintainersIndex index = new MaintainersIndex(maintainers, settings, null);
+
+        // one component gets new maintainer instead of its current ones
+        final List<ComponentInfo> changedMaintainers = new ArrayList<>(maintainers);
+        final ComponentInfo changed = maintainers.get(5);
+        changedMaintainers.set(5, new ComponentInfo.ComponentInfoBuilder()
+                .setTitle(changed.getTitle())
+                .setMaintainers(Collections.singleton(new Maintainer("New Maintainer", "new@example.com")))
+                .setPaths(changed.getPaths())
+                .setComments(changed.getComments())
+                .createMaintainer());
+        final MaintainersIndex derived = index.derive(changedMaintainers, settings, null);
+
+        assertSame(index.getPathTrie(), derived.getPathTrie());
+        final Set<String> changedEmails = changed.getMaintainers().stream()
+                .map(Maintainer::getEmail)
+                .filter(Objects::nonNull)
+                .map(Maintainer::normalizeEmail)
+                .collect(Collectors.toSet());
+        maintainers.stream()
+                .flatMap(component -> component.getMaintainers().stream())
+                .map(Maintainer::getEmail)
+                .filter(Objects::nonNull)
+                .map(Maintainer::normalizeEmail)
+                .filter(email -> !changedEmails.contains(email))
+                .forEach(email -> assertSame(index.getComponentIdsForMaintainerEmail(email),
+                        derived.getComponentIdsForMaintainerEmail(email)));
+
+        final MaintainersIndex built = new MaintainersIndex(changedMaintainers, settings, null);
+        assertEquals(resolve(built, FILES), resolve(derived, FILES));
+        for (String email : changedEmails) {
+            assertEquals(built.getComponentIdsForMaintainerEmail(email),
+                    derived.getComponentIdsForMaintainerEmail(email));
+        }
+        assertEquals(built.getComponentIdsForMaintainerEmail("new@example.com"),
+                derived.getComponentIdsForMaintainerEmail("new@example.com"));
+
+        // removed component shifts ids of the following ones
+        final List<ComponentInfo> removedMaintainers = new ArrayList<>(maintainers);
+        removedMaintainers.remove(5);
+        final MaintainersIndex removedDerived = index.derive(removedMaintainers, settings, null);
+        final MaintainersIndex removedBuilt = new MaintainersIndex(removedMaintainers, settings, null);
+        assertEquals(resolve(removedBuilt, FILES), resolve(removedDerived, FILES));
+        for (int id = 0; id < removedMaintainers.size(); id++) {
+            assertEquals(removedBuilt.getComponentTitle(id), removedDerived.getComponentTitle(id));
+        }
+    }
+}